@@ -0,0 +1,81 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test for the gateway: every connection sends the next request as soon as the previous one completes.
+ * Run with the JDK single-file launcher, e.g.
+ * {@code java gateway/loadtest/GatewayLoadTest.java http://localhost:8080 /users/1 1 1000 30}
+ * (base url, path, X-Sharer-User-Id, concurrent connections, duration in seconds).
+ */
+public class GatewayLoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String path = args.length > 1 ? args[1] : "/users/1";
+        String userId = args.length > 2 ? args[2] : "1";
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("X-Sharer-User-Id", userId)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        CountDownLatch finished = new CountDownLatch(connections);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long startedAt = System.nanoTime();
+
+        for (int i = 0; i < connections; i++) {
+            sendNext(client, request, deadline, ok, failed, latencies, finished);
+        }
+        finished.await();
+
+        double elapsed = (System.nanoTime() - startedAt) / 1e9;
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("connections=%d duration=%.1fs ok=%d failed=%d%n", connections, elapsed, ok.get(), failed.get());
+        System.out.printf("requests/sec=%.1f%n", ok.get() / elapsed);
+        if (sorted.length > 0) {
+            System.out.printf("latency ms p50=%.1f p99=%.1f max=%.1f%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static void sendNext(HttpClient client, HttpRequest request, long deadline, AtomicLong ok, AtomicLong failed,
+                                 ConcurrentLinkedQueue<Long> latencies, CountDownLatch finished) {
+        if (System.nanoTime() >= deadline) {
+            finished.countDown();
+            return;
+        }
+        long sentAt = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.statusCode() < 500) {
+                        ok.incrementAndGet();
+                        latencies.add(System.nanoTime() - sentAt);
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                    sendNext(client, request, deadline, ok, failed, latencies, finished);
+                });
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))] / 1e6;
+    }
+}
@@ -1,14 +1,14 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchange;
 
 import java.util.Map;
 
@@ -17,46 +17,62 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerExchange exchange) {
+        super(exchange, API_PREFIX);
     }
 
 
-    public ResponseEntity<Object> createBooking(BookingDto dto, long userId) {
+    public Mono<ResponseEntity<Object>> createBooking(BookingDto dto, long userId) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> updateBooking(Long bookingId, boolean approved, long userId) {
+    public Mono<ResponseEntity<Object>> createBookings(BookingBatchDto batch, long userId) {
+        return post("/batch", userId, batch);
+    }
+
+    public Mono<ResponseEntity<Object>> updateBooking(Long bookingId, boolean approved, long userId) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, new BookingDto());
     }
 
-    public ResponseEntity<Object> findBookingById(long bookingId, long userId) {
-        return get("/" + bookingId, userId);
+    public Mono<ResponseEntity<Object>> findBookingById(long bookingId, long userId, String ifNoneMatch) {
+        return get("/" + bookingId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> findAllBookingsByOwnerIdAndState(Long ownerId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", ownerId, parameters);
+    public Mono<ResponseEntity<Object>> findAllBookingsByOwnerIdAndState(Long ownerId, String state, int from, String cursor, int size) {
+        return get(pageQuery("", cursor), ownerId, pageParameters(state, from, cursor, size));
+    }
+
+    public Mono<ResponseEntity<Object>> findAllBookingsForOwnerItemsWithState(long ownerId, String state, int from, String cursor, int size) {
+        return get(pageQuery("/owner", cursor), ownerId, pageParameters(state, from, cursor, size));
     }
 
-    public ResponseEntity<Object> findAllBookingsForOwnerItemsWithState(long ownerId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerIdAndState(long ownerId, String state) {
+        return stream("/export?state={state}", ownerId, Map.of("state", state));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportBookingsForOwnerItemsWithState(long ownerId, String state) {
+        return stream("/owner/export?state={state}", ownerId, Map.of("state", state));
+    }
+
+    private static String pageQuery(String path, String cursor) {
+        return path + (cursor == null
+                ? "?state={state}&from={from}&size={size}"
+                : "?state={state}&cursor={cursor}&size={size}");
+    }
+
+    private static Map<String, Object> pageParameters(String state, int from, String cursor, int size) {
+        if (cursor == null) {
+            return Map.of(
+                    "state", state,
+                    "from", from,
+                    "size", size
+            );
+        }
+        return Map.of(
                 "state", state,
-                "from", from,
+                "cursor", cursor,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
     }
-
-
 }
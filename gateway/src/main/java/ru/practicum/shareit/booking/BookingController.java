@@ -2,13 +2,23 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
@@ -18,50 +28,100 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final long NO_ASYNC_TIMEOUT = -1;
+
     private final BookingClient bookingClient;
 
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestBody @Valid BookingDto bookingDto,
+    public Mono<ResponseEntity<Object>> createBooking(@RequestBody @Valid BookingDto bookingDto,
                                                 @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
         return bookingClient.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createBookings(@RequestBody @Valid BookingBatchDto batch,
+                                                 @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        return bookingClient.createBookings(batch, userId);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBooking(@PathVariable @Positive Long bookingId,
+    public Mono<ResponseEntity<Object>> updateBooking(@PathVariable @Positive Long bookingId,
                                                 @RequestParam boolean approved,
                                                 @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
         return bookingClient.updateBooking(bookingId, approved, userId);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> findBookingById(@PathVariable Long bookingId,
-                                                  @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        return bookingClient.findBookingById(bookingId, userId);
+    public Mono<ResponseEntity<Object>> findBookingById(@PathVariable Long bookingId,
+                                                  @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return bookingClient.findBookingById(bookingId, userId, ifNoneMatch);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllBookingsByOwnerIdAndState(
+    public Mono<ResponseEntity<Object>> findAllBookingsByOwnerIdAndState(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false) @Pattern(regexp = "[A-Za-z0-9_-]+") String cursor,
             @RequestParam(defaultValue = "10") @Positive int size) {
         assertValidState(state);
-        return bookingClient.findAllBookingsByOwnerIdAndState(ownerId, state, from, size);
+        assertSinglePosition(from, cursor);
+        return bookingClient.findAllBookingsByOwnerIdAndState(ownerId, state, from, cursor, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findAllBookingsForOwnerItemsWithState(
+    public Mono<ResponseEntity<Object>> findAllBookingsForOwnerItemsWithState(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(required = false) @Pattern(regexp = "[A-Za-z0-9_-]+") String cursor,
             @RequestParam(defaultValue = "10") @Positive int size) {
         assertValidState(state);
-        return bookingClient.findAllBookingsForOwnerItemsWithState(ownerId, state, from, size);
+        assertSinglePosition(from, cursor);
+        return bookingClient.findAllBookingsForOwnerItemsWithState(ownerId, state, from, cursor, size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerIdAndState(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            NativeWebRequest webRequest) {
+        assertValidState(state);
+        withoutAsyncTimeout(webRequest);
+        return bookingClient.exportBookingsByOwnerIdAndState(ownerId, state);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsForOwnerItemsWithState(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            NativeWebRequest webRequest) {
+        assertValidState(state);
+        withoutAsyncTimeout(webRequest);
+        return bookingClient.exportBookingsForOwnerItemsWithState(ownerId, state);
+    }
+
+    //снимает ограничение времени асинхронной обработки только для этого запроса: выгрузка идёт, пока не закончится
+    private static void withoutAsyncTimeout(NativeWebRequest webRequest) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(
+                webRequest.getNativeRequest(HttpServletRequest.class), webRequest.getNativeResponse(HttpServletResponse.class));
+        asyncWebRequest.setTimeout(NO_ASYNC_TIMEOUT);
+        WebAsyncUtils.getAsyncManager(webRequest).setAsyncWebRequest(asyncWebRequest);
+    }
+
+    private void assertSinglePosition(int from, String cursor) {
+        if (cursor != null && from != 0) {
+            throw new IllegalArgumentException("Use either from or cursor.");
+        }
     }
 
+    //state может содержать несколько состояний через запятую, например WAITING,CURRENT
     private void assertValidState(String state) {
-        BookingState.from(state)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
+        for (String oneState : state.split(",", -1)) {
+            BookingState.from(oneState.trim())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
+        }
     }
 }
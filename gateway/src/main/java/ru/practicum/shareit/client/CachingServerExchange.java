@@ -0,0 +1,185 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches 200 responses to GET requests on the routes listed in {@code shareit-server.cache.routes},
+ * keyed by path, query and X-Sharer-User-Id. Within ttl an entry is returned without a server call,
+ * after that it is revalidated with If-None-Match when the server sent an ETag.
+ * A client whose own If-None-Match matches the entry's ETag gets 304 Not Modified instead of the body.
+ * Any successful write through the gateway drops all entries.
+ */
+@Component
+@Primary
+public class CachingServerExchange implements ServerExchange {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String REQUESTS_METER = "gateway.cache.requests";
+
+    private final ServerExchange transport;
+    private final List<String> routes;
+    private final long ttlNanos;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final UriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+    private final Cache<String, Entry> cache;
+    private final Counter hits;
+    private final Counter revalidations;
+    private final Counter misses;
+
+    public CachingServerExchange(@Qualifier(ServerExchange.TRANSPORT) ServerExchange transport,
+                                 ServerResponseCacheProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.routes = List.copyOf(properties.getRoutes());
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl().plus(properties.getRevalidateFor()))
+                .build();
+        this.hits = meterRegistry.counter(REQUESTS_METER, "result", "hit");
+        this.revalidations = meterRegistry.counter(REQUESTS_METER, "result", "revalidated");
+        this.misses = meterRegistry.counter(REQUESTS_METER, "result", "miss");
+        Gauge.builder("gateway.cache.size", cache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> stream(String path, HttpHeaders headers, Map<String, Object> parameters) {
+        return transport.stream(path, headers, parameters);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        if (routes.isEmpty()) {
+            return transport.exchange(method, path, headers, parameters, body);
+        }
+        if (method != HttpMethod.GET) {
+            return transport.exchange(method, path, headers, parameters, body)
+                    .doOnNext(response -> {
+                        if (response.getStatusCode().is2xxSuccessful()) {
+                            cache.invalidateAll();
+                        }
+                    });
+        }
+
+        URI uri = parameters != null ? uriBuilderFactory.expand(path, parameters) : uriBuilderFactory.expand(path);
+        if (!isCachedRoute(uri.getPath())) {
+            return transport.exchange(method, path, headers, parameters, body);
+        }
+
+        String key = headers.getFirst(USER_ID_HEADER) + " " + uri;
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.isFresh()) {
+            hits.increment();
+            return Mono.just(cached.toResponse(ifNoneMatch));
+        }
+
+        HttpHeaders requestHeaders = headers;
+        if (cached != null && cached.getEtag() != null) {
+            requestHeaders = new HttpHeaders();
+            requestHeaders.addAll(headers);
+            requestHeaders.setIfNoneMatch(cached.getEtag());
+        }
+        return transport.exchange(method, path, requestHeaders, parameters, body)
+                .flatMap(response -> Mono.fromCallable(() -> store(key, cached, response, ifNoneMatch)));
+    }
+
+    private boolean isCachedRoute(String path) {
+        for (String route : routes) {
+            if (pathMatcher.match(route, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity<Object> store(String key, @Nullable Entry cached, ResponseEntity<Object> response,
+                                         List<String> ifNoneMatch) throws IOException {
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            discard(response.getBody());
+            revalidations.increment();
+            Entry refreshed = new Entry(cached.getHeaders(), cached.getBody(), cached.getEtag(), System.nanoTime() + ttlNanos);
+            cache.put(key, refreshed);
+            return refreshed.toResponse(ifNoneMatch);
+        }
+
+        misses.increment();
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return response;
+        }
+        Entry entry = new Entry(PassThroughHeaders.of(response.getHeaders()), readBody(response.getBody()),
+                response.getHeaders().getETag(), System.nanoTime() + ttlNanos);
+        cache.put(key, entry);
+        return entry.toResponse(ifNoneMatch);
+    }
+
+    /**
+     * Streamed pass-through bodies can be read only once, so they are buffered before being cached.
+     */
+    @Nullable
+    private static Object readBody(@Nullable Object body) throws IOException {
+        if (body instanceof Resource) {
+            try (InputStream in = ((Resource) body).getInputStream()) {
+                return StreamUtils.copyToByteArray(in);
+            }
+        }
+        return body;
+    }
+
+    private static void discard(@Nullable Object body) throws IOException {
+        if (body instanceof Resource) {
+            ((Resource) body).getInputStream().close();
+        }
+    }
+
+    @RequiredArgsConstructor
+    @Getter
+    private static class Entry {
+        private final HttpHeaders headers;
+        @Nullable
+        private final Object body;
+        @Nullable
+        private final String etag;
+        private final long freshUntilNanos;
+
+        boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        ResponseEntity<Object> toResponse(List<String> ifNoneMatch) {
+            // у клиента уже эта версия: тело не передаётся
+            if (etag != null && (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*"))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Server response headers that are copied to the gateway response in pass-through mode.
+ * Hop-by-hop headers and the ones the gateway's own servlet container sets are dropped.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PassThroughHeaders {
+    private static final Set<String> DROPPED = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        DROPPED.addAll(Set.of(
+                HttpHeaders.CONNECTION,
+                "Keep-Alive",
+                HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.TE,
+                HttpHeaders.TRAILER,
+                HttpHeaders.UPGRADE,
+                HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION,
+                HttpHeaders.DATE));
+    }
+
+    public static HttpHeaders of(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!DROPPED.contains(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Blocking mode: the request is sent with {@link RestTemplate} on the servlet thread that handles it,
+ * over the pooled connections of {@link ServerClientConfiguration#serverHttpClient}.
+ * In pass-through mode the server's status, headers and body bytes are streamed back without deserialization.
+ */
+@Component
+@Qualifier(ServerExchange.TRANSPORT)
+@ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateServerExchange implements ServerExchange {
+    private final RestTemplate rest;
+    private final ObjectMapper objectMapper;
+    private final boolean passThrough;
+
+    public RestTemplateServerExchange(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                                      HttpClient serverHttpClient, ObjectMapper objectMapper,
+                                      ServerClientProperties properties) {
+        this.rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                .build();
+        this.objectMapper = objectMapper;
+        this.passThrough = properties.isPassThrough();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        if (passThrough) {
+            return Mono.fromCallable(() -> stream(method, path, headers, parameters, body));
+        }
+        return Mono.fromCallable(() -> send(method, path, headers, parameters, body));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> stream(String path, HttpHeaders headers, Map<String, Object> parameters) {
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(rest.getUriTemplateHandler().expand(path, parameters), HttpMethod.GET);
+            request.getHeaders().addAll(headers);
+            ClientHttpResponse response = request.execute();
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .headers(PassThroughHeaders.of(response.getHeaders()))
+                    .body(output -> {
+                        try (response) {
+                            StreamUtils.copy(response.getBody(), output);
+                        }
+                    });
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    /**
+     * Returns the server response body as an open stream; it is copied to the client and closed,
+     * which releases the pooled connection, by Spring MVC's resource message converter.
+     */
+    private ResponseEntity<Object> stream(HttpMethod method, String path, HttpHeaders headers,
+                                          @Nullable Map<String, Object> parameters, @Nullable Object body) throws IOException {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+        request.getHeaders().addAll(headers);
+        if (body != null) {
+            request.getBody().write(objectMapper.writeValueAsBytes(body));
+        }
+        ClientHttpResponse response = request.execute();
+        return ResponseEntity.status(response.getRawStatusCode())
+                .headers(PassThroughHeaders.of(response.getHeaders()))
+                .body(new InputStreamResource(response.getBody()));
+    }
+
+    private ResponseEntity<Object> send(HttpMethod method, String path, HttpHeaders headers,
+                                        @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<Object> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+
+        String etag = response.getHeaders().getETag();
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && etag != null) {
+            responseBuilder.eTag(etag);
+        }
+
+        if (response.hasBody()) {
+            return responseBuilder.body(response.getBody());
+        }
+
+        return responseBuilder.build();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection settings shared by all gateway clients of the ShareIt server.
+ */
+@ConfigurationProperties(prefix = "shareit-server.client")
+@Getter
+@Setter
+public class ServerClientProperties {
+    /**
+     * blocking (RestTemplate) or reactive (WebClient).
+     */
+    private String mode = "blocking";
+
+    /**
+     * Return server response bytes and headers as is instead of deserializing and re-serializing the body.
+     */
+    private boolean passThrough = true;
+
+    /**
+     * Maximum number of pooled connections; applies to the blocking client only.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Maximum number of pooled connections to the server.
+     */
+    private int maxPerRoute = 200;
+
+    /**
+     * How long an idle connection is reused when the server does not send a Keep-Alive timeout.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Connections idle for longer than this are closed by a background evictor.
+     */
+    private Duration idleTimeout = Duration.ofSeconds(10);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long a request waits for a free pooled connection.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Sends a validated gateway request to the ShareIt server.
+ * The transport is selected with {@code shareit-server.client.mode}; clients get it through {@link CachingServerExchange}.
+ */
+public interface ServerExchange {
+    /**
+     * Qualifier of the mode-specific implementation that actually talks to the server.
+     */
+    String TRANSPORT = "serverTransport";
+
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                          @Nullable Map<String, Object> parameters, @Nullable Object body);
+
+    /**
+     * Sends a GET request and copies the server's status, headers and body to the client as the body arrives,
+     * in any mode and without caching, for responses too large to hold in memory.
+     */
+    ResponseEntity<StreamingResponseBody> stream(String path, HttpHeaders headers, Map<String, Object> parameters);
+}
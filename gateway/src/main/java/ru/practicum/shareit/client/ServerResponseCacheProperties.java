@@ -0,0 +1,34 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gateway cache of server responses to GET requests; disabled until at least one route is listed.
+ */
+@ConfigurationProperties(prefix = "shareit-server.cache")
+@Getter
+@Setter
+public class ServerResponseCacheProperties {
+    /**
+     * Ant-style patterns of server paths whose GET responses are cached, e.g. /items/* or /requests/**.
+     */
+    private List<String> routes = new ArrayList<>();
+
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a cached response is returned without asking the server.
+     */
+    private Duration ttl = Duration.ofSeconds(5);
+
+    /**
+     * How long an entry older than ttl is kept to be revalidated with If-None-Match.
+     */
+    private Duration revalidateFor = Duration.ofMinutes(5);
+}
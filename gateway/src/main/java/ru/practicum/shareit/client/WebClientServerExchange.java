@@ -0,0 +1,115 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive mode: the request is sent with {@link WebClient} and the servlet thread is released
+ * until the server responds, so gateway concurrency is no longer capped by the Tomcat thread pool.
+ * In pass-through mode the server's status, headers and raw body bytes are returned without deserialization.
+ */
+@Component
+@Qualifier(ServerExchange.TRANSPORT)
+@ConditionalOnProperty(name = "shareit-server.client.mode", havingValue = "reactive")
+public class WebClientServerExchange implements ServerExchange {
+    // ETag и указатели следующей страницы списков бронирований и вещей передаются и без pass-through
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.ETAG, "X-Next-Cursor", "X-Next-After-Id");
+
+    private final WebClient webClient;
+    private final boolean passThrough;
+
+    public WebClientServerExchange(@Value("${shareit-server.url}") String serverUrl,
+                                   ConnectionProvider serverConnectionProvider,
+                                   ServerClientProperties properties,
+                                   WebClient.Builder builder) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        this.webClient = builder
+                .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl))
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        this.passThrough = properties.isPassThrough();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Collections.emptyMap())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        if (body != null) {
+            request.bodyValue(body);
+        }
+        return request.exchangeToMono(passThrough
+                ? WebClientServerExchange::passThroughResponse
+                : WebClientServerExchange::prepareGatewayResponse);
+    }
+
+    /**
+     * Waits for the status and headers on the calling servlet thread; the body is then written to the client
+     * chunk by chunk as the server sends it, each chunk released after it is written.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> stream(String path, HttpHeaders headers, Map<String, Object> parameters) {
+        ResponseEntity<Flux<DataBuffer>> response = webClient.get()
+                .uri(path, parameters)
+                .headers(requestHeaders -> requestHeaders.addAll(headers))
+                .retrieve()
+                .onStatus(status -> true, serverResponse -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .block();
+        return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(PassThroughHeaders.of(response.getHeaders()))
+                .body(output -> DataBufferUtils.write(response.getBody(), output)
+                        .doOnNext(DataBufferUtils::release)
+                        .then()
+                        .block());
+    }
+
+    private static Mono<ResponseEntity<Object>> passThroughResponse(ClientResponse response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.rawStatusCode())
+                .headers(PassThroughHeaders.of(response.headers().asHttpHeaders()));
+        return response.bodyToMono(byte[].class)
+                .<ResponseEntity<Object>>map(responseBuilder::body)
+                .defaultIfEmpty(responseBuilder.build());
+    }
+
+    private static Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.rawStatusCode());
+        if (response.statusCode().is2xxSuccessful() || response.statusCode() == HttpStatus.NOT_MODIFIED) {
+            FORWARDED_HEADERS.forEach(name -> response.headers().header(name).forEach(value -> responseBuilder.header(name, value)));
+        }
+        if (response.statusCode().is2xxSuccessful()) {
+            return response.bodyToMono(Object.class)
+                    .map(responseBuilder::body)
+                    .defaultIfEmpty(responseBuilder.build());
+        }
+        return response.bodyToMono(byte[].class)
+                .<ResponseEntity<Object>>map(responseBuilder::body)
+                .defaultIfEmpty(responseBuilder.build());
+    }
+}
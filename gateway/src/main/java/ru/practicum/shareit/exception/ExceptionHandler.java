@@ -9,6 +9,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.ConstraintViolationException;
+
 
 @RestController
 @ControllerAdvice
@@ -21,6 +23,12 @@ public class ExceptionHandler {
 
     }
 
+    //нарушения @Positive, @Pattern и др. в параметрах и заголовках контроллеров
+    @org.springframework.web.bind.annotation.ExceptionHandler(ConstraintViolationException.class)
+    ResponseEntity<Response> handleConstraintViolationException(ConstraintViolationException exc) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new Response(exc.getMessage()));
+    }
+
 /*    @org.springframework.web.bind.annotation.ExceptionHandler(Throwable.class)
     ResponseEntity<Response> handleThrowableException(Throwable exc) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new Response(exc.getMessage() != null ? exc.getMessage() : null));
@@ -1,21 +1,20 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchange;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -23,38 +22,53 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerExchange exchange) {
+        super(exchange, API_PREFIX);
     }
 
-    public ResponseEntity<Object> createItem(ItemDto itemDto, long userId) {
+    public Mono<ResponseEntity<Object>> createItem(ItemDto itemDto, long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemDto itemDto, Long userId, Long itemId) throws IllegalAccessException {
+    public Mono<ResponseEntity<Object>> updateItem(ItemDto itemDto, Long userId, Long itemId) throws IllegalAccessException {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> findItemById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> findItemById(Long itemId, Long userId, String ifNoneMatch) {
+        return get("/" + itemId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> findOwnerItems(Long userId) {
-        return get("", userId);
+    public Mono<ResponseEntity<Object>> findItemComments(Long itemId, Long userId, long afterId, int size) {
+        Map<String, Object> parameters = Map.of(
+                "afterId", afterId,
+                "size", size);
+        return get("/" + itemId + "/comments?afterId={afterId}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchAvailableItems(String text, long userId) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", userId, parameters);
+    public Mono<ResponseEntity<Object>> findItemAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to);
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> findOwnerItems(Long userId, long afterId, int size) {
+        Map<String, Object> parameters = Map.of(
+                "afterId", afterId,
+                "size", size);
+        return get("?afterId={afterId}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> searchAvailableItems(String text, long userId, int from, int size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size);
+        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestBody @Valid CommentDto commentDto, @PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> createComment(@RequestBody @Valid CommentDto commentDto, @PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
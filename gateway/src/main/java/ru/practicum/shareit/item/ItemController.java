@@ -1,15 +1,20 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 @RestController
@@ -20,35 +25,64 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestBody @Valid ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestBody @Valid ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
         return itemClient.createItem(itemDto, userId);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") @Positive Long userId, @PathVariable Long itemId) throws IllegalAccessException {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestBody ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") @Positive Long userId, @PathVariable Long itemId) throws IllegalAccessException {
         return itemClient.updateItem(itemDto, userId, itemId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> findItemById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        return itemClient.findItemById(itemId, userId);
+    public Mono<ResponseEntity<Object>> findItemById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return itemClient.findItemById(itemId, userId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<Object>> findItemComments(
+            @PathVariable @Positive Long itemId,
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero long afterId,
+            @RequestParam(defaultValue = "10") @Positive int size) {
+        return itemClient.findItemComments(itemId, userId, afterId, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> findItemAvailability(
+            @PathVariable @Positive Long itemId,
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("From must be before to.");
+        }
+        return itemClient.findItemAvailability(itemId, userId, from, to);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findOwnerItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        return itemClient.findOwnerItems(userId);
+    public Mono<ResponseEntity<Object>> findOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero long afterId,
+            @RequestParam(defaultValue = "10") @Positive int size) {
+        return itemClient.findOwnerItems(userId, afterId, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchAvailableItems(@RequestParam String text, @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+    public Mono<ResponseEntity<Object>> searchAvailableItems(
+            @RequestParam String text,
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size) {
         if (text.isBlank() || text.isEmpty()) {
-            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK);
+            return Mono.just(new ResponseEntity<>(Collections.emptyList(), HttpStatus.OK));
         }
-        return itemClient.searchAvailableItems(text, userId);
+        return itemClient.searchAvailableItems(text, userId, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestBody @Valid CommentDto commentDto, @PathVariable @Positive Long itemId, @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+    public Mono<ResponseEntity<Object>> createComment(@RequestBody @Valid CommentDto commentDto, @PathVariable @Positive Long itemId, @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
         return itemClient.createComment(commentDto, itemId, userId);
     }
 
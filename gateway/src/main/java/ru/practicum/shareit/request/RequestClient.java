@@ -1,13 +1,11 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchange;
 import ru.practicum.shareit.request.dto.RequestDesc;
 
 import java.util.Map;
@@ -18,31 +16,26 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public RequestClient(ServerExchange exchange) {
+        super(exchange, API_PREFIX);
     }
 
-    public ResponseEntity<Object> createRequest(RequestDesc dto, long userId) {
+    public Mono<ResponseEntity<Object>> createRequest(RequestDesc dto, long userId) {
         return post("", userId, dto);
     }
 
-    ResponseEntity<Object> findAllOwnersRequests(long userId) {
-        return get("", userId);
+    Mono<ResponseEntity<Object>> findAllOwnersRequests(long userId, String ifNoneMatch) {
+        return get("", userId, ifNoneMatch);
     }
 
-    ResponseEntity<Object> findAllRequests(long userId, int from, int size) {
+    Mono<ResponseEntity<Object>> findAllRequests(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    ResponseEntity<Object> findRequestById(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    Mono<ResponseEntity<Object>> findRequestById(long userId, long requestId, String ifNoneMatch) {
+        return get("/" + requestId, userId, ifNoneMatch);
     }
 }
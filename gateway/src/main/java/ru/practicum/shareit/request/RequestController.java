@@ -1,9 +1,11 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.RequestDesc;
 
 import javax.validation.Valid;
@@ -18,18 +20,19 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @PostMapping
-    ResponseEntity<Object> createRequest(@RequestBody @Valid RequestDesc dto,
+    Mono<ResponseEntity<Object>> createRequest(@RequestBody @Valid RequestDesc dto,
                                          @RequestHeader("X-Sharer-User-Id") @Positive long userId) {
         return requestClient.createRequest(dto, userId);
     }
 
     @GetMapping
-    ResponseEntity<Object> findAllOwnersRequests(@RequestHeader("X-Sharer-User-Id") @Positive long userId) {
-        return requestClient.findAllOwnersRequests(userId);
+    Mono<ResponseEntity<Object>> findAllOwnersRequests(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return requestClient.findAllOwnersRequests(userId, ifNoneMatch);
     }
 
     @GetMapping("/all")
-    ResponseEntity<Object> findAllRequests(
+    Mono<ResponseEntity<Object>> findAllRequests(
             @RequestHeader("X-Sharer-User-Id") @Positive long userId,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
             @RequestParam(defaultValue = "10") @Positive int size) {
@@ -37,8 +40,9 @@ public class RequestController {
     }
 
     @GetMapping("/{requestId}")
-    ResponseEntity<Object> findRequestById(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
-                                           @PathVariable @Positive long requestId) {
-        return requestClient.findRequestById(userId, requestId);
+    Mono<ResponseEntity<Object>> findRequestById(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                           @PathVariable @Positive long requestId,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return requestClient.findRequestById(userId, requestId, ifNoneMatch);
     }
 }
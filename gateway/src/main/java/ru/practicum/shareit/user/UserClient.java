@@ -1,13 +1,11 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerExchange;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
@@ -15,32 +13,27 @@ public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(ServerExchange exchange) {
+        super(exchange, API_PREFIX);
     }
 
-    public ResponseEntity<Object> findAllUsers() {
+    public Mono<ResponseEntity<Object>> findAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> findUserById(long userId) {
+    public Mono<ResponseEntity<Object>> findUserById(long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> patchUser(UserDto userDto, long userId) {
+    public Mono<ResponseEntity<Object>> patchUser(UserDto userDto, long userId) {
         return patch("/" + userId, userDto);
     }
 
-    public void deleteUserById(long userId) {
-        delete("/" + userId);
+    public Mono<ResponseEntity<Object>> deleteUserById(long userId) {
+        return delete("/" + userId);
     }
 }
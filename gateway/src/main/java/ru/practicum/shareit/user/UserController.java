@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -17,27 +18,27 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid UserDto user) {
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody @Valid UserDto user) {
         return userClient.createUser(user);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> findUserById(@PathVariable @Positive Long userId) {
+    public Mono<ResponseEntity<Object>> findUserById(@PathVariable @Positive Long userId) {
         return userClient.findUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllUsers() {
+    public Mono<ResponseEntity<Object>> findAllUsers() {
         return userClient.findAllUsers();
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> patchUser(@RequestBody UserDto userDto, @PathVariable @Positive Long userId) throws IllegalAccessException {
+    public Mono<ResponseEntity<Object>> patchUser(@RequestBody UserDto userDto, @PathVariable @Positive Long userId) throws IllegalAccessException {
         return userClient.patchUser(userDto, userId);
     }
 
     @DeleteMapping("/{userId}")
-    public void deleteUserById(@PathVariable @Positive Long userId) {
-        userClient.deleteUserById(userId);
+    public Mono<ResponseEntity<Object>> deleteUserById(@PathVariable @Positive Long userId) {
+        return userClient.deleteUserById(userId);
     }
 }
\ No newline at end of file
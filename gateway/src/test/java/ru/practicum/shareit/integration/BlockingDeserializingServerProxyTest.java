@@ -0,0 +1,7 @@
+package ru.practicum.shareit.integration;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {"shareit-server.client.mode=blocking", "shareit-server.client.pass-through=false"})
+class BlockingDeserializingServerProxyTest extends ServerProxyTest {
+}
@@ -0,0 +1,240 @@
+package ru.practicum.shareit.integration;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gateway requests against a stub ShareIt server; subclasses run them in each {@code shareit-server.client.mode},
+ * with and without pass-through.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class ServerProxyTest {
+    private static final MockWebServer server = new MockWebServer();
+
+    @Autowired
+    private TestRestTemplate rest;
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://" + server.getHostName() + ":" + server.getPort());
+    }
+
+    //сервер общий для всех контекстов: запросы, оставшиеся от предыдущих тестов, отбрасываются
+    @BeforeEach
+    public void dropRecordedRequests() throws InterruptedException {
+        while (server.takeRequest(10, TimeUnit.MILLISECONDS) != null) {
+        }
+    }
+
+    /*невалидное тело запроса отклоняется шлюзом, сервер не вызывается*/
+    @Test
+    public void createBooking_endBeforeStart_badRequestWithoutServerCall() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        Map<String, Object> booking = Map.of("itemId", 1, "start", start.toString(), "end", start.minusDays(1).toString());
+
+        ResponseEntity<String> response = rest.exchange("/bookings", HttpMethod.POST,
+                new HttpEntity<>(booking, userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(server.takeRequest(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    /*ограничения параметров (@Positive) дают 400, а не 500*/
+    @Test
+    public void findOwnerItems_sizeNotPositive_badRequestWithoutServerCall() throws InterruptedException {
+        ResponseEntity<String> response = rest.exchange("/items?size=0", HttpMethod.GET,
+                new HttpEntity<>(userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(server.takeRequest(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void findBookingsByOwner_unknownState_badRequestWithoutServerCall() throws InterruptedException {
+        ResponseEntity<String> response = rest.exchange("/bookings?state=SOMETIMES", HttpMethod.GET,
+                new HttpEntity<>(userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Unknown state: SOMETIMES");
+        assertThat(server.takeRequest(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    /*ошибка сервера доходит до клиента с тем же статусом и телом*/
+    @Test
+    public void findBookingById_serverError_statusAndBodyPassedThrough() throws InterruptedException {
+        String error = "{\"time\":\"2026-10-18T10:00:00\",\"message\":\"Booking not found.\",\"id\":7}";
+        server.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody(error));
+
+        ResponseEntity<String> response = rest.exchange("/bookings/7", HttpMethod.GET,
+                new HttpEntity<>(userHeaders(3)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody()).isEqualTo(error);
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getPath()).isEqualTo("/bookings/7");
+        assertThat(request.getHeader("X-Sharer-User-Id")).isEqualTo("3");
+    }
+
+    @Test
+    public void createBooking_serverConflict_statusAndBodyPassedThrough() {
+        String error = "{\"time\":\"2026-10-18T10:00:00\",\"message\":\"Item is already booked.\",\"itemId\":1}";
+        server.enqueue(new MockResponse()
+                .setResponseCode(409)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody(error));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Map<String, Object> booking = Map.of("itemId", 1, "start", start.toString(), "end", start.plusDays(1).toString());
+
+        ResponseEntity<String> response = rest.exchange("/bookings", HttpMethod.POST,
+                new HttpEntity<>(booking, userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isEqualTo(error);
+    }
+
+    /*указатель следующей страницы передаётся клиенту*/
+    @Test
+    public void findBookingsByOwner_nextCursor_passedToClient() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setHeader("X-Next-Cursor", "MjAyNi0xMC0xOFQxMDowMF83")
+                .setBody("[]"));
+
+        ResponseEntity<String> response = rest.exchange("/bookings?state=ALL&size=2", HttpMethod.GET,
+                new HttpEntity<>(userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isEqualTo("MjAyNi0xMC0xOFQxMDowMF83");
+        assertThat(server.takeRequest(1, TimeUnit.SECONDS).getPath()).startsWith("/bookings?").contains("size=2");
+    }
+
+    @Test
+    public void findOwnerItems_fullPage_nextAfterIdPassedToClient() {
+        server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setHeader("X-Next-After-Id", "12")
+                .setBody("[{\"id\":12,\"name\":\"Drill\"}]"));
+
+        ResponseEntity<String> response = rest.exchange("/items?size=1", HttpMethod.GET,
+                new HttpEntity<>(userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("X-Next-After-Id")).isEqualTo("12");
+        assertThat(response.getBody()).contains("\"id\":12");
+    }
+
+    /*If-None-Match клиента передаётся серверу, а его 304 - клиенту*/
+    @ParameterizedTest
+    @ValueSource(strings = {"/items/5", "/bookings/5", "/requests", "/requests/5"})
+    public void get_ifNoneMatch_forwardedAndNotModifiedReturned(String path) throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(304)
+                .setHeader(HttpHeaders.ETAG, "\"v1\""));
+        HttpHeaders headers = userHeaders(1);
+        headers.setIfNoneMatch("\"v1\"");
+
+        ResponseEntity<String> response = rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(response.getBody()).isNull();
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getPath()).isEqualTo(path);
+        assertThat(request.getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    public void findItemById_serverETag_passedToClient() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setHeader(HttpHeaders.ETAG, "\"v2\"")
+                .setBody("{\"id\":5,\"name\":\"Drill\"}"));
+
+        ResponseEntity<String> response = rest.exchange("/items/5", HttpMethod.GET,
+                new HttpEntity<>(userHeaders(1)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"v2\"");
+        assertThat(response.getBody()).contains("\"id\":5");
+        assertThat(server.takeRequest(1, TimeUnit.SECONDS).getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+    }
+
+    /*выгрузка пересылается по частям: первые строки приходят клиенту, пока сервер ещё отправляет остальные*/
+    @Test
+    public void exportBookings_slowServer_streamedToClient() throws Exception {
+        int lines = 2000;
+        Buffer body = new Buffer();
+        for (int i = 1; i <= lines; i++) {
+            body.writeUtf8(String.format("{\"id\":%d,\"status\":\"APPROVED\",\"item\":{\"id\":1,\"name\":\"Drill\"}}%n", i));
+        }
+        server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/x-ndjson")
+                .setBody(body)
+                .throttleBody(16 * 1024, 100, TimeUnit.MILLISECONDS));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/export?state=ALL"))
+                .header("X-Sharer-User-Id", "1")
+                .build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/x-ndjson");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            assertThat(reader.readLine()).startsWith("{\"id\":1,");
+            long firstLineAt = System.nanoTime();
+            int received = 1;
+            String last = null;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                received++;
+                last = line;
+            }
+            long lastLineAt = System.nanoTime();
+
+            assertThat(received).isEqualTo(lines);
+            assertThat(last).startsWith("{\"id\":" + lines + ",");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(lastLineAt - firstLineAt)).isGreaterThan(300);
+        }
+    }
+
+    private static HttpHeaders userHeaders(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
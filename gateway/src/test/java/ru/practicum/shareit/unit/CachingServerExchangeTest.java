@@ -0,0 +1,255 @@
+package ru.practicum.shareit.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.CachingServerExchange;
+import ru.practicum.shareit.client.ServerExchange;
+import ru.practicum.shareit.client.ServerResponseCacheProperties;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingServerExchangeTest {
+    private static final String ITEM_PATH = "/items/{itemId}";
+    private static final Map<String, Object> ITEM_PARAMETERS = Map.of("itemId", 1L);
+
+    @Mock
+    ServerExchange transport;
+    @Captor
+    ArgumentCaptor<HttpHeaders> sentHeaders;
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void createMeterRegistry() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /*повторный запрос в пределах ttl отдаётся из кэша без обращения к серверу*/
+    @Test
+    public void exchange_sameRequestWithinTtl_servedFromCache() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok("item")));
+
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("item");
+        ResponseEntity<Object> cached = getItem(exchange, 1);
+
+        assertThat(cached.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cached.getBody()).isEqualTo("item");
+        Mockito.verify(transport, Mockito.times(1)).exchange(any(), any(), any(), any(), any());
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    /*ключ кэша включает X-Sharer-User-Id: ответ одному пользователю не отдаётся другому*/
+    @Test
+    public void exchange_otherUser_notServedFromCache() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), argThat(userId("1")), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok("item for owner")));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), argThat(userId("2")), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok("item for booker")));
+
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("item for owner");
+        assertThat(getItem(exchange, 2).getBody()).isEqualTo("item for booker");
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("item for owner");
+        assertThat(getItem(exchange, 2).getBody()).isEqualTo("item for booker");
+
+        Mockito.verify(transport, Mockito.times(2)).exchange(any(), any(), any(), any(), any());
+        assertThat(requests("miss")).isEqualTo(2);
+        assertThat(requests("hit")).isEqualTo(2);
+    }
+
+    /*после ttl запись проверяется по If-None-Match, ответ 304 продлевает её*/
+    @Test
+    public void exchange_afterTtl_revalidatedWithIfNoneMatch() throws InterruptedException {
+        CachingServerExchange exchange = createExchange(Duration.ofMillis(200));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), sentHeaders.capture(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok().eTag("\"1\"").body((Object) "item")))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build()));
+
+        getItem(exchange, 1);
+        Thread.sleep(300);
+        ResponseEntity<Object> revalidated = getItem(exchange, 1);
+        ResponseEntity<Object> cached = getItem(exchange, 1);
+
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(revalidated.getBody()).isEqualTo("item");
+        assertThat(cached.getBody()).isEqualTo("item");
+        List<HttpHeaders> headers = sentHeaders.getAllValues();
+        assertThat(headers).hasSize(2);
+        assertThat(headers.get(0).getIfNoneMatch()).isEmpty();
+        assertThat(headers.get(1).getIfNoneMatch()).containsExactly("\"1\"");
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("revalidated")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    /*клиенту с совпадающим If-None-Match кэш отвечает 304 без тела и без обращения к серверу*/
+    @Test
+    public void exchange_clientIfNoneMatchesCachedETag_notModified() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok().eTag("\"1\"").body((Object) "item")));
+        getItem(exchange, 1);
+        HttpHeaders headers = userHeaders(1);
+        headers.setIfNoneMatch("\"1\"");
+
+        ResponseEntity<Object> notModified = exchange.exchange(HttpMethod.GET, ITEM_PATH, headers, ITEM_PARAMETERS, null).block();
+        headers.setIfNoneMatch("\"0\"");
+        ResponseEntity<Object> changed = exchange.exchange(HttpMethod.GET, ITEM_PATH, headers, ITEM_PARAMETERS, null).block();
+
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo("\"1\"");
+        assertThat(notModified.getBody()).isNull();
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).isEqualTo("item");
+        Mockito.verify(transport, Mockito.times(1)).exchange(any(), any(), any(), any(), any());
+    }
+
+    /*304 сервера на If-None-Match клиента без записи в кэше передаётся клиенту и не сохраняется*/
+    @Test
+    public void exchange_clientIfNoneMatchNotCached_serverNotModifiedReturned() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), sentHeaders.capture(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("\"1\"").build()))
+                .thenReturn(Mono.just(ResponseEntity.ok().eTag("\"1\"").body((Object) "item")));
+        HttpHeaders headers = userHeaders(1);
+        headers.setIfNoneMatch("\"1\"");
+
+        ResponseEntity<Object> notModified = exchange.exchange(HttpMethod.GET, ITEM_PATH, headers, ITEM_PARAMETERS, null).block();
+
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(sentHeaders.getValue().getIfNoneMatch()).containsExactly("\"1\"");
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("item");
+    }
+
+    /*успешная запись через шлюз очищает кэш*/
+    @Test
+    public void exchange_successfulWrite_cacheCleared() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok("item")))
+                .thenReturn(Mono.just(ResponseEntity.ok("updated item")));
+        Mockito.when(transport.exchange(eq(HttpMethod.PATCH), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), any()))
+                .thenReturn(Mono.just(ResponseEntity.ok("updated item")));
+
+        getItem(exchange, 1);
+        exchange.exchange(HttpMethod.PATCH, ITEM_PATH, userHeaders(1), ITEM_PARAMETERS, Map.of("name", "updated")).block();
+
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("updated item");
+        assertThat(requests("miss")).isEqualTo(2);
+        assertThat(requests("hit")).isEqualTo(0);
+    }
+
+    /*неуспешная запись кэш не очищает*/
+    @Test
+    public void exchange_failedWrite_cacheKept() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok("item")));
+        Mockito.when(transport.exchange(eq(HttpMethod.PATCH), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), any()))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body("conflict")));
+
+        getItem(exchange, 1);
+        exchange.exchange(HttpMethod.PATCH, ITEM_PATH, userHeaders(1), ITEM_PARAMETERS, Map.of("name", "updated")).block();
+
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("item");
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    /*ответы со статусом, отличным от 200, не сохраняются*/
+    @Test
+    public void exchange_notOkResponse_notStored() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body("not found")))
+                .thenReturn(Mono.just(ResponseEntity.ok("item")));
+
+        ResponseEntity<Object> notFound = getItem(exchange, 1);
+
+        assertThat(notFound.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(notFound.getBody()).isEqualTo("not found");
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo("item");
+        Mockito.verify(transport, Mockito.times(2)).exchange(any(), any(), any(), any(), any());
+        assertThat(requests("miss")).isEqualTo(2);
+        assertThat(requests("hit")).isEqualTo(0);
+    }
+
+    /*тело pass-through читается из потока один раз, поэтому в кэш кладутся его байты*/
+    @Test
+    public void exchange_streamedBody_cachedAsBytes() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        byte[] item = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq(ITEM_PATH), any(), eq(ITEM_PARAMETERS), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok(new InputStreamResource(new ByteArrayInputStream(item)))));
+
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo(item);
+        assertThat(getItem(exchange, 1).getBody()).isEqualTo(item);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    /*пути, не перечисленные в routes, не кэшируются*/
+    @Test
+    public void exchange_notCachedRoute_alwaysSentToServer() {
+        CachingServerExchange exchange = createExchange(Duration.ofMinutes(1));
+        Mockito.when(transport.exchange(eq(HttpMethod.GET), eq("/bookings/{bookingId}"), any(), any(), isNull()))
+                .thenReturn(Mono.just(ResponseEntity.ok("booking")));
+
+        for (int i = 0; i < 2; i++) {
+            exchange.exchange(HttpMethod.GET, "/bookings/{bookingId}", userHeaders(1), Map.of("bookingId", 1L), null).block();
+        }
+
+        Mockito.verify(transport, Mockito.times(2)).exchange(any(), any(), any(), any(), any());
+        assertThat(requests("miss") + requests("hit")).isEqualTo(0);
+    }
+
+    private CachingServerExchange createExchange(Duration ttl) {
+        ServerResponseCacheProperties properties = new ServerResponseCacheProperties();
+        properties.setRoutes(List.of("/items/*"));
+        properties.setTtl(ttl);
+        return new CachingServerExchange(transport, properties, meterRegistry);
+    }
+
+    private ResponseEntity<Object> getItem(CachingServerExchange exchange, long userId) {
+        return exchange.exchange(HttpMethod.GET, ITEM_PATH, userHeaders(userId), ITEM_PARAMETERS, null).block();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("gateway.cache.requests", "result", result).count();
+    }
+
+    private static ArgumentMatcher<HttpHeaders> userId(String userId) {
+        return headers -> headers != null && userId.equals(headers.getFirst("X-Sharer-User-Id"));
+    }
+
+    private static HttpHeaders userHeaders(long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        return headers;
+    }
+}
@@ -0,0 +1,41 @@
+-- Формы запросов, которые генерирует Hibernate для методов репозиториев.
+
+\echo '--- BookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bookings WHERE item_id = 4242 AND start < now() AND status = 'APPROVED' ORDER BY finish DESC LIMIT 1;
+
+\echo '--- BookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bookings WHERE item_id = 4242 AND start > now() AND status = 'APPROVED' ORDER BY start LIMIT 1;
+
+\echo '--- BookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bookings WHERE item_id = 4242 AND booker_id = 9695 AND status = 'APPROVED' AND finish < now() LIMIT 1;
+
+\echo '--- BookingRepository.findAllByBookerId (page 1)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bookings WHERE booker_id = 77 ORDER BY start DESC LIMIT 10;
+
+\echo '--- BookingRepository.findAllByItemOwnerId (page 1)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.owner_id = 77 ORDER BY b.start DESC LIMIT 10;
+
+\echo '--- ItemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM items WHERE owner_id = 77 AND id > 100000 ORDER BY id LIMIT 10;
+
+\echo '--- ItemRepository.findAllByItemRequestId'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM items WHERE item_request_id = 4242;
+
+\echo '--- CommentRepository.findAllByItemIdOrderById'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM comments WHERE item_id = 4242 ORDER BY id;
+
+\echo '--- RequestRepository.findAllByRequestorIdOrderByCreatedDesc'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM requests WHERE requestor_id = 77 ORDER BY created DESC;
+
+\echo '--- RequestRepository.findAllByRequestorIdNot (page 1)'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM requests WHERE requestor_id <> 77 ORDER BY created DESC LIMIT 10;
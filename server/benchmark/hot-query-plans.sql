@@ -0,0 +1,46 @@
+-- Планы горячих запросов сервера до и после индексов из V2__add_query_indexes.sql.
+-- Запуск на пустой базе PostgreSQL (скрипт работает в отдельной схеме bench и удаляет ее в конце):
+--   psql -d shareit -f server/benchmark/hot-query-plans.sql > hot-query-plans.txt
+\set ON_ERROR_STOP on
+\timing off
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path TO bench;
+
+\ir ../src/main/resources/db/migration/common/V1__create_tables.sql
+
+INSERT INTO users (name, email)
+SELECT 'user' || g, 'user' || g || '@mail.ru' FROM generate_series(1, 20000) g;
+
+INSERT INTO requests (description, requestor_id, created)
+SELECT 'request ' || g, 1 + g % 20000, now() - g * interval '1 minute' FROM generate_series(1, 50000) g;
+
+INSERT INTO items (name, description, available, owner_id, item_request_id)
+SELECT 'item' || g, 'description of item ' || g, g % 10 <> 0, 1 + g % 2000, CASE WHEN g % 5 = 0 THEN 1 + g % 50000 END
+FROM generate_series(1, 200000) g;
+
+INSERT INTO bookings (item_id, booker_id, start, finish, status)
+SELECT 1 + g % 200000, 1 + (g * 7) % 20000,
+       now() + (g % 2000 - 1000) * interval '1 day',
+       now() + (g % 2000 - 1000) * interval '1 day' + interval '2 days',
+       (ARRAY ['WAITING', 'APPROVED', 'APPROVED', 'REJECTED'])[1 + g % 4]
+FROM generate_series(1, 1000000) g;
+
+INSERT INTO comments (item_id, author_id, text, created)
+SELECT 1 + g % 200000, 1 + g % 20000, 'comment ' || g, now() - g * interval '1 minute'
+FROM generate_series(1, 300000) g;
+
+ANALYZE;
+
+\echo '==================== BEFORE ===================='
+\ir hot-queries.sql
+
+\ir ../src/main/resources/db/migration/common/V2__add_query_indexes.sql
+ANALYZE;
+
+\echo '==================== AFTER ===================='
+\ir hot-queries.sql
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
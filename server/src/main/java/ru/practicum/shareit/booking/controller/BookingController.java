@@ -1,11 +1,29 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.query.BookingCursor;
+import ru.practicum.shareit.booking.service.BookingExport;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -14,38 +32,110 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final long NO_ASYNC_TIMEOUT = -1;
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestBody BookingDto bookingDto, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return bookingService.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(@RequestBody BookingBatchDto batch, @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.createBookings(batch.getBookings(), userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateBooking(@PathVariable Long bookingId, @RequestParam boolean approved, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return bookingService.updateBooking(bookingId, approved, userId);
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDto findBookingById(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public BookingDto findBookingById(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId, WebRequest request) {
+        if (request.checkNotModified(bookingService.findBookingETag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.findBookingById(bookingId, userId);
     }
 
     @GetMapping
-    public List<BookingDto> findAllBookingsByOwnerIdAndState(
+    public ResponseEntity<List<BookingDto>> findAllBookingsByOwnerIdAndState(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
             @RequestParam String state,
-            @RequestParam int from,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(required = false) String cursor,
             @RequestParam int size) {
-        return bookingService.findAllBookingsByOwnerIdAndState(ownerId, state, from, size);
+        return page(cursor == null
+                ? bookingService.findAllBookingsByOwnerIdAndState(ownerId, state, from, size)
+                : bookingService.findAllBookingsByOwnerIdAndState(ownerId, state, cursor, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findAllBookingsForOwnerItemsWithState(
+    public ResponseEntity<List<BookingDto>> findAllBookingsForOwnerItemsWithState(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
             @RequestParam String state,
-            @RequestParam int from,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(required = false) String cursor,
             @RequestParam int size) {
-        return bookingService.findAllBookingsForOwnerItemsWithState(ownerId, state, from, size);
+        return page(cursor == null
+                ? bookingService.findAllBookingsForOwnerItemsWithState(ownerId, state, from, size)
+                : bookingService.findAllBookingsForOwnerItemsWithState(ownerId, state, cursor, size), size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByOwnerIdAndState(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            NativeWebRequest webRequest) {
+        BookingExport export = bookingService.exportBookingsByOwnerIdAndState(ownerId, state);
+        withoutAsyncTimeout(webRequest);
+        return ndjson(export);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsForOwnerItemsWithState(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            NativeWebRequest webRequest) {
+        BookingExport export = bookingService.exportBookingsForOwnerItemsWithState(ownerId, state);
+        withoutAsyncTimeout(webRequest);
+        return ndjson(export);
+    }
+
+    //одно бронирование - одна строка JSON; строки пишутся по мере чтения из БД и сбрасываются буфером контейнера
+    private ResponseEntity<StreamingResponseBody> ndjson(BookingExport export) {
+        ObjectWriter writer = objectMapper.writerFor(BookingDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        StreamingResponseBody body = output -> export.forEach(booking -> {
+            try {
+                writer.writeValue(output, booking);
+                output.write('\n');
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    //снимает ограничение времени асинхронной обработки только для этого запроса: выгрузка идёт, пока не закончится
+    private static void withoutAsyncTimeout(NativeWebRequest webRequest) {
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(
+                webRequest.getNativeRequest(HttpServletRequest.class), webRequest.getNativeResponse(HttpServletResponse.class));
+        asyncWebRequest.setTimeout(NO_ASYNC_TIMEOUT);
+        WebAsyncUtils.getAsyncManager(webRequest).setAsyncWebRequest(asyncWebRequest);
+    }
+
+    //полная страница может быть не последней: курсор на следующую передаётся в заголовке
+    private static ResponseEntity<List<BookingDto>> page(List<BookingDto> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            BookingDto last = bookings.get(bookings.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new BookingCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookings);
     }
 }
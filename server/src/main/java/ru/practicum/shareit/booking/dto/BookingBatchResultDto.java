@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one entry of a batch, {@code index} is its position in the request.
+ * Either {@code booking} or {@code error} is set.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BookingBatchResultDto {
+
+    private int index;
+
+    private BookingDto booking;
+
+    private String error;
+}
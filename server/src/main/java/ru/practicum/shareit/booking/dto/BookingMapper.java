@@ -30,4 +30,8 @@ public class BookingMapper {
     public static BookingBookerIdDto toBookingBookerIdDto(Booking entity) {
         return entity != null ? new BookingBookerIdDto(entity.getId(), entity.getBooker().getId()) : null;
     }
+
+    public static BookingBookerIdDto toBookingBookerIdDto(ItemBookingView view) {
+        return view != null ? new BookingBookerIdDto(view.getId(), view.getBookerId()) : null;
+    }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * What {@link BookingDto} of a booking depends on, read without loading the booking graph.
+ */
+public interface BookingVersionView {
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    long getVersion();
+
+    long getItemVersion();
+
+    String getBookerName();
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last or next approved booking of an item, as returned by
+ * {@link ru.practicum.shareit.booking.repository.BookingRepository#findLastAndNextBookingsForItems}.
+ */
+public interface ItemBookingView {
+    Long getItemId();
+
+    Kind getKind();
+
+    Long getId();
+
+    Long getBookerId();
+
+    LocalDateTime getStart();
+
+    enum Kind {
+        LAST,
+        NEXT
+    }
+}
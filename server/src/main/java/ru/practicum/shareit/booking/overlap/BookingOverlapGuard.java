@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.overlap;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Keeps approved bookings of an item from overlapping; {@code [start, end)} ranges that only touch do not overlap.
+ * The implementation is selected with {@code shareit.booking.overlap.mode}.
+ */
+public interface BookingOverlapGuard {
+    /**
+     * Throws {@link ru.practicum.shareit.exception.exceptions.BookingOverlapException}
+     * if the range overlaps an approved booking of the item.
+     */
+    void assertFree(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Reads approved ranges of all the items that end after {@code from} at once, so that a batch of bookings
+     * starting not before {@code from} is checked in memory instead of with a query per booking.
+     */
+    OverlapCheck prepare(Collection<Long> itemIds, LocalDateTime from);
+
+    /**
+     * Runs the approval of the booking only if its range is still free of other approved bookings,
+     * so that concurrent approvals cannot both succeed.
+     */
+    <T> T reserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Supplier<T> approval);
+}
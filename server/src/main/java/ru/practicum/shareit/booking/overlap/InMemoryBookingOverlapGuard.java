@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.overlap;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.exceptions.BookingOverlapException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Counterpart of the PostgreSQL exclusion constraint for H2: approved ranges of each item are loaded on first use
+ * and kept in {@link ItemIntervals}; approvals of the same item are serialized on its intervals.
+ * Correct for a single server instance only.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.overlap.mode", havingValue = "memory", matchIfMissing = true)
+public class InMemoryBookingOverlapGuard implements BookingOverlapGuard {
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> itemIntervals = new ConcurrentHashMap<>();
+
+    @Override
+    public void assertFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (intervals(itemId).overlaps(null, start, end)) {
+            throw new BookingOverlapException("Item is already booked for this time.", itemId);
+        }
+    }
+
+    //ранее не читавшиеся вещи загружаются одним запросом, дальше проверка идёт по их интервалам в памяти
+    @Override
+    public OverlapCheck prepare(Collection<Long> itemIds, LocalDateTime from) {
+        Set<Long> missing = itemIds.stream().filter(itemId -> !itemIntervals.containsKey(itemId)).collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            Map<Long, ItemIntervals> loaded = new HashMap<>();
+            missing.forEach(itemId -> loaded.put(itemId, new ItemIntervals()));
+            bookingRepository.findAllByItemIdInAndStatusAndEndAfter(missing, BookingStatus.APPROVED, LocalDateTime.now())
+                    .forEach(booking -> loaded.get(booking.getItem().getId()).add(booking.getId(), booking.getStart(), booking.getEnd()));
+            loaded.forEach(itemIntervals::putIfAbsent);
+        }
+        return this::assertFree;
+    }
+
+    @Override
+    public <T> T reserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Supplier<T> approval) {
+        ItemIntervals intervals = intervals(itemId);
+        synchronized (intervals) {
+            if (intervals.overlaps(bookingId, start, end)) {
+                throw new BookingOverlapException("Item is already booked for this time.", itemId);
+            }
+            T approved = approval.get();
+            intervals.removeEndedBefore(LocalDateTime.now());
+            intervals.add(bookingId, start, end);
+            return approved;
+        }
+    }
+
+    private ItemIntervals intervals(Long itemId) {
+        return itemIntervals.computeIfAbsent(itemId, id -> {
+            ItemIntervals intervals = new ItemIntervals();
+            bookingRepository.findAllByItemIdAndStatusAndEndAfter(id, BookingStatus.APPROVED, LocalDateTime.now())
+                    .forEach(booking -> intervals.add(booking.getId(), booking.getStart(), booking.getEnd()));
+            return intervals;
+        });
+    }
+}
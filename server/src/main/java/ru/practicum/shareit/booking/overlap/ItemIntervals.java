@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.overlap;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Approved booking ranges of one item keyed by start. The ranges never overlap, so the only candidate
+ * for an overlap with {@code [start, end)} is the range with the greatest start before {@code end}.
+ */
+class ItemIntervals {
+    private final NavigableMap<LocalDateTime, Range> ranges = new TreeMap<>();
+
+    /**
+     * The range of {@code bookingId} itself is not an overlap; pass {@code null} for a booking not yet saved.
+     */
+    synchronized boolean overlaps(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, Range> candidate = ranges.lowerEntry(end);
+        return candidate != null
+                && !Objects.equals(candidate.getValue().bookingId, bookingId)
+                && candidate.getValue().end.isAfter(start);
+    }
+
+    synchronized void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        ranges.put(start, new Range(end, bookingId));
+    }
+
+    /**
+     * Drops ranges that ended before {@code time}; new bookings always start in the future.
+     */
+    synchronized void removeEndedBefore(LocalDateTime time) {
+        ranges.headMap(time).values().removeIf(range -> range.end.isBefore(time));
+    }
+
+    private static class Range {
+        private final LocalDateTime end;
+        private final Long bookingId;
+
+        Range(LocalDateTime end, Long bookingId) {
+            this.end = end;
+            this.bookingId = bookingId;
+        }
+    }
+}
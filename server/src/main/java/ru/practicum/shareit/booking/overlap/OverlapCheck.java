@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.overlap;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checks new bookings against approved ranges already read by {@link BookingOverlapGuard#prepare}, without queries.
+ */
+@FunctionalInterface
+public interface OverlapCheck {
+    /**
+     * Throws {@link ru.practicum.shareit.exception.exceptions.BookingOverlapException}
+     * if the range overlaps an approved booking of the item.
+     */
+    void assertFree(Long itemId, LocalDateTime start, LocalDateTime end);
+}
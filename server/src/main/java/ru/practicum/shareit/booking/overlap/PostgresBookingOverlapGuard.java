@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking.overlap;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.exceptions.BookingOverlapException;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Relies on the bookings_approved_no_overlap exclusion constraint from the V5 migration: its GiST index answers
+ * the overlap lookup, and the database rejects an approval that would overlap one committed concurrently.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.overlap.mode", havingValue = "constraint")
+public class PostgresBookingOverlapGuard implements BookingOverlapGuard {
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public void assertFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsApprovedOverlapping(itemId, start, end)) {
+            throw new BookingOverlapException("Item is already booked for this time.", itemId);
+        }
+    }
+
+    @Override
+    public OverlapCheck prepare(Collection<Long> itemIds, LocalDateTime from) {
+        if (itemIds.isEmpty()) {
+            return (itemId, start, end) -> {
+            };
+        }
+        Map<Long, ItemIntervals> approved = new HashMap<>();
+        bookingRepository.findAllByItemIdInAndStatusAndEndAfter(itemIds, BookingStatus.APPROVED, from)
+                .forEach(booking -> approved.computeIfAbsent(booking.getItem().getId(), id -> new ItemIntervals())
+                        .add(booking.getId(), booking.getStart(), booking.getEnd()));
+        return (itemId, start, end) -> {
+            ItemIntervals intervals = approved.get(itemId);
+            if (intervals != null && intervals.overlaps(null, start, end)) {
+                throw new BookingOverlapException("Item is already booked for this time.", itemId);
+            }
+        };
+    }
+
+    @Override
+    public <T> T reserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end, Supplier<T> approval) {
+        try {
+            return approval.get();
+        } catch (DataIntegrityViolationException e) {
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                throw new BookingOverlapException("Item is already booked for this time.", itemId);
+            }
+            throw e;
+        }
+    }
+}
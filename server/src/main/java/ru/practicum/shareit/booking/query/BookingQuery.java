@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.query;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Bookings of {@code userId} in the given role matching any of {@code states}, newest first.
+ * With {@code after} set the page starts right after that booking and {@code offset} is usually 0.
+ */
+@Getter
+@Builder
+public class BookingQuery {
+    private final BookingRole role;
+    private final Long userId;
+    private final Set<BookingState> states;
+    private final BookingCursor after;
+    private final int offset;
+    private final int limit;
+}
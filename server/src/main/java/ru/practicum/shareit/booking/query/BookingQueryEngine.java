@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking.query;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Builds one JPQL statement per role, set of states and cursor presence and keeps it, so that Hibernate
+ * translates every combination once and the statement text stays the same for the prepared statement cache.
+ * States are OR-ed in a single query sharing one {@code :now}; the order {@code start desc, id desc}
+ * is served by the {@code (booker_id, start)} and {@code (item_id, start, finish)} indexes, and a cursor
+ * turns into a range condition on {@code start}, so a deep page is read like the first one.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingQueryEngine {
+    private static final String STATUS = "ru.practicum.shareit.booking.model.BookingStatus.";
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+    private final Map<PlanKey, Plan> plans = new ConcurrentHashMap<>();
+
+    public List<Booking> find(BookingQuery query) {
+        return prepare(query)
+                .setFirstResult(query.getOffset())
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+
+    /**
+     * Passes every matching booking to {@code action}, ignoring offset and limit. Rows are read from an open cursor
+     * in chunks of {@link #EXPORT_FETCH_SIZE} and the persistence context is cleared after each chunk,
+     * so memory does not grow with the number of bookings. The action must not keep the entities.
+     */
+    @Transactional(readOnly = true)
+    public void forEach(BookingQuery query, Consumer<Booking> action) {
+        TypedQuery<Booking> typedQuery = prepare(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true);
+        try (Stream<Booking> bookings = typedQuery.getResultStream()) {
+            int read = 0;
+            for (Iterator<Booking> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                action.accept(iterator.next());
+                if (++read % EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private TypedQuery<Booking> prepare(BookingQuery query) {
+        Plan plan = plans.computeIfAbsent(new PlanKey(query.getRole(), query.getStates(), query.getAfter() != null), BookingQueryEngine::compile);
+        TypedQuery<Booking> typedQuery = entityManager.createQuery(plan.jpql, Booking.class)
+                .setParameter("userId", query.getUserId());
+        if (plan.usesNow) {
+            typedQuery.setParameter("now", LocalDateTime.now());
+        }
+        if (query.getAfter() != null) {
+            typedQuery.setParameter("afterStart", query.getAfter().getStart());
+            typedQuery.setParameter("afterId", query.getAfter().getId());
+        }
+        return typedQuery;
+    }
+
+    private static Plan compile(PlanKey key) {
+        StringBuilder jpql = new StringBuilder("select b from Booking b join fetch b.item i join fetch b.booker u where ")
+                .append(key.role == BookingRole.BOOKER ? "u.id = :userId" : "i.owner.id = :userId");
+        List<String> predicates = new ArrayList<>();
+        boolean usesNow = false;
+        for (BookingState state : key.states) {
+            switch (state) {
+                case CURRENT:
+                    predicates.add("(b.start < :now and b.end > :now)");
+                    usesNow = true;
+                    break;
+                case PAST:
+                    predicates.add("b.end < :now");
+                    usesNow = true;
+                    break;
+                case FUTURE:
+                    predicates.add("b.start > :now");
+                    usesNow = true;
+                    break;
+                case WAITING:
+                case REJECTED:
+                    predicates.add("b.status = " + STATUS + state.name());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!key.states.contains(BookingState.ALL) && !predicates.isEmpty()) {
+            jpql.append(" and (").append(String.join(" or ", predicates)).append(')');
+        }
+        if (key.keyset) {
+            jpql.append(" and b.start <= :afterStart and (b.start < :afterStart or b.id < :afterId)");
+        }
+        jpql.append(" order by b.start desc, b.id desc");
+        return new Plan(jpql.toString(), usesNow);
+    }
+
+    @RequiredArgsConstructor
+    private static class Plan {
+        private final String jpql;
+        private final boolean usesNow;
+    }
+
+    @EqualsAndHashCode
+    private static class PlanKey {
+        private final BookingRole role;
+        private final Set<BookingState> states;
+        private final boolean keyset;
+
+        PlanKey(BookingRole role, Set<BookingState> states, boolean keyset) {
+            this.role = role;
+            this.states = states.isEmpty() ? EnumSet.noneOf(BookingState.class) : EnumSet.copyOf(states);
+            this.keyset = keyset;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.query;
+
+public enum BookingRole {
+    // Бронирования, сделанные пользователем
+    BOOKER,
+    // Бронирования вещей пользователя
+    OWNER
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.query;
+
+import ru.practicum.shareit.exception.exceptions.UnknownStateException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    REJECTED;
+
+    /**
+     * Parses a comma-separated list such as {@code WAITING,CURRENT}; a list containing {@code ALL} means no filter.
+     */
+    public static Set<BookingState> parse(String states) {
+        Set<BookingState> parsed = EnumSet.noneOf(BookingState.class);
+        for (String state : states.split(",", -1)) {
+            try {
+                parsed.add(valueOf(state.trim()));
+            } catch (IllegalArgumentException exc) {
+                throw new UnknownStateException(String.format("Unknown state: %s", states), states);
+            }
+        }
+        return parsed.contains(ALL) ? EnumSet.of(ALL) : parsed;
+    }
+}
@@ -1,40 +1,85 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.availability.BookingSlot;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(Long itemId, LocalDateTime currentTime, BookingStatus status);
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long bookingId);
 
-    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime currentTime, BookingStatus status);
+    @Query("select b.booker.id as bookerId, i.owner.id as ownerId, b.version as version, " +
+            "i.version as itemVersion, u.name as bookerName " +
+            "from Booking b join b.item i join b.booker u where b.id = :bookingId")
+    Optional<BookingVersionView> findVersionById(@Param("bookingId") Long bookingId);
 
-    Optional<Booking> findFirstByItemIdAndBookerIdAndStatusAndEndBefore(Long itemId, Long bookerId, BookingStatus status, LocalDateTime time);
-
-    List<Booking> findAllByBookerId(Long bookerId, Pageable page);
-
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime now1, LocalDateTime now2, Pageable page);
+    /**
+     * Moves a WAITING booking of an item owned by {@code ownerId} to {@code status} and bumps its version
+     * in a single statement; of concurrent calls for the same booking at most one gets 1 back.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :bookingId and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "and b.item in (select i from Item i where i.owner.id = :ownerId)")
+    int updateWaitingBookingStatus(@Param("bookingId") Long bookingId,
+                                   @Param("ownerId") Long ownerId,
+                                   @Param("status") BookingStatus status);
 
-    List<Booking> findAllByBookerIdAndEndBefore(Long bookerId, LocalDateTime now, Pageable page);
+    @Query(value = "select ranked.item_id as itemId, ranked.kind as kind, ranked.id as id, " +
+            "ranked.booker_id as bookerId, ranked.start as start from (" +
+            "select b.id, b.item_id, b.booker_id, b.start, 'LAST' as kind, " +
+            "row_number() over (partition by b.item_id order by b.finish desc, b.id) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.status = :status and b.start < :now " +
+            "union all " +
+            "select b.id, b.item_id, b.booker_id, b.start, 'NEXT' as kind, " +
+            "row_number() over (partition by b.item_id order by b.start, b.id) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.status = :status and b.start > :now" +
+            ") ranked where ranked.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                                          @Param("now") LocalDateTime now,
+                                                          @Param("status") String status);
 
-    List<Booking> findAllByBookerIdAndStartAfter(Long bookerId, LocalDateTime now, Pageable page);
+    List<Booking> findAllByItemIdAndStatusAndEndAfter(Long itemId, BookingStatus status, LocalDateTime time);
 
-    List<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable page);
+    List<Booking> findAllByItemIdInAndStatusAndEndAfter(Collection<Long> itemIds, BookingStatus status, LocalDateTime time);
 
-    List<Booking> findAllByItemOwnerId(Long ownerId, Pageable page);
+    @Query(value = "select exists(select 1 from bookings b where b.item_id = :itemId and b.status = 'APPROVED' " +
+            "and tsrange(b.start, b.finish) && tsrange(:start, :end))", nativeQuery = true)
+    boolean existsApprovedOverlapping(@Param("itemId") Long itemId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime now1, LocalDateTime now2, Pageable page);
+    @Query("select new ru.practicum.shareit.item.availability.BookingSlot(b.id, b.start, b.end, b.status) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses and b.start < :to and b.end > :from " +
+            "order by b.start")
+    List<BookingSlot> findSlotsByItemId(@Param("itemId") Long itemId,
+                                        @Param("statuses") Collection<BookingStatus> statuses,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
 
-    List<Booking> findAllByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime now, Pageable page);
+    @Query("select new ru.practicum.shareit.item.availability.BookingSlot(b.id, b.start, b.end, b.status) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses and b.end > :from")
+    List<BookingSlot> findSlotsByItemIdEndingAfter(@Param("itemId") Long itemId,
+                                                   @Param("statuses") Collection<BookingStatus> statuses,
+                                                   @Param("from") LocalDateTime from);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime now, Pageable page);
-
-    List<Booking> findAllByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Pageable page);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findFirstByItemIdAndBookerIdAndStatusAndEndBefore(Long itemId, Long bookerId, BookingStatus status, LocalDateTime time);
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.util.function.Consumer;
+
+/**
+ * Bookings that are read only when {@link #forEach} is called, one at a time, so that they can be written
+ * to the response as they come instead of being collected first.
+ */
+@FunctionalInterface
+public interface BookingExport {
+    void forEach(Consumer<BookingDto> action);
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
 import java.util.List;
@@ -7,12 +8,30 @@ import java.util.List;
 public interface BookingService {
     BookingDto createBooking(BookingDto bookingDto, Long userId);
 
+    List<BookingBatchResultDto> createBookings(List<BookingDto> bookingDtos, Long userId);
+
     BookingDto updateBooking(Long bookingId, boolean approved, Long ownerId);
 
     BookingDto findBookingById(Long bookingId, Long userId);
 
+    String findBookingETag(Long bookingId, Long userId);
+
     List<BookingDto> findAllBookingsByOwnerIdAndState(Long ownerId, String state, int from, int size);
 
     List<BookingDto> findAllBookingsForOwnerItemsWithState(Long ownerId, String state, int from, int size);
 
+    /**
+     * Page of bookings right after {@code cursor}, see {@link ru.practicum.shareit.booking.query.BookingCursor}.
+     */
+    List<BookingDto> findAllBookingsByOwnerIdAndState(Long ownerId, String state, String cursor, int size);
+
+    List<BookingDto> findAllBookingsForOwnerItemsWithState(Long ownerId, String state, String cursor, int size);
+
+    /**
+     * All bookings of the user in the given states, newest first. The user and states are checked right away,
+     * the bookings are read when the export is consumed.
+     */
+    BookingExport exportBookingsByOwnerIdAndState(Long ownerId, String state);
+
+    BookingExport exportBookingsForOwnerItemsWithState(Long ownerId, String state);
 }
@@ -1,27 +1,48 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.overlap.BookingOverlapGuard;
+import ru.practicum.shareit.booking.overlap.OverlapCheck;
+import ru.practicum.shareit.booking.query.BookingCursor;
+import ru.practicum.shareit.booking.query.BookingQuery;
+import ru.practicum.shareit.booking.query.BookingQueryEngine;
+import ru.practicum.shareit.booking.query.BookingRole;
+import ru.practicum.shareit.booking.query.BookingState;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.exceptions.BookingStatusAlreadyApprovedException;
+import ru.practicum.shareit.exception.exceptions.BookingStatusChangedException;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exception.exceptions.IllegalAccessToEntityException;
-import ru.practicum.shareit.exception.exceptions.UnknownStateException;
+import ru.practicum.shareit.exception.exceptions.ShareItException;
+import ru.practicum.shareit.item.availability.ItemCalendarCache;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,110 +52,233 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemCalendarCache itemCalendarCache;
+    private final BookingOverlapGuard bookingOverlapGuard;
+    private final BookingQueryEngine bookingQueryEngine;
+    private final ItemStatsRecorder itemStatsRecorder;
+    private final TransactionOperations transactionOperations;
 
     @Override
     public BookingDto createBooking(BookingDto bookingDto, Long userId) {
         Booking booking = BookingMapper.toBooking(bookingDto);
         Item item;
-        booking.setItem(item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() -> new EntityNotFoundException("Item not found.", bookingDto.getItemId(), String.valueOf(Thread.currentThread().getStackTrace()[1]))));
+        booking.setItem(item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() -> new EntityNotFoundException("Item not found.", bookingDto.getItemId())));
         assertItemAvailable(item);
-        booking.setBooker(userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]))));
+        booking.setBooker(userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId)));
         validateBookerNotOwner(booking, userId);
+        bookingOverlapGuard.assertFree(item.getId(), booking.getStart(), booking.getEnd());
         booking.setStatus(BookingStatus.WAITING);
-        return BookingMapper.toDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        itemDetailsCache.evict(item.getId());
+        itemCalendarCache.update(savedBooking);
+        return BookingMapper.toDto(savedBooking);
+    }
+
+    /**
+     * Items and their approved ranges are read with one IN query each and valid entries are inserted with one batched saveAll;
+     * an entry that fails validation is reported with its error and does not affect the others.
+     */
+    @Override
+    public List<BookingBatchResultDto> createBookings(List<BookingDto> bookingDtos, Long userId) {
+        User booker = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId));
+        Set<Long> itemIds = bookingDtos.stream().map(BookingDto::getItemId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        OverlapCheck overlapCheck = bookingOverlapGuard.prepare(items.keySet(), earliestStart(bookingDtos));
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingDtos.size());
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        for (int index = 0; index < bookingDtos.size(); index++) {
+            BookingDto bookingDto = bookingDtos.get(index);
+            try {
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new EntityNotFoundException("Item not found.", bookingDto.getItemId());
+                }
+                assertItemAvailable(item);
+                Booking booking = BookingMapper.toBooking(bookingDto);
+                booking.setItem(item);
+                booking.setBooker(booker);
+                validateBookerNotOwner(booking, userId);
+                overlapCheck.assertFree(item.getId(), booking.getStart(), booking.getEnd());
+                booking.setStatus(BookingStatus.WAITING);
+                accepted.put(index, booking);
+                results.add(null);
+            } catch (ShareItException exc) {
+                results.add(new BookingBatchResultDto(index, null, exc.getMessage()));
+            } catch (ResponseStatusException exc) {
+                results.add(new BookingBatchResultDto(index, null, exc.getReason()));
+            }
+        }
+        bookingRepository.saveAll(accepted.values());
+        accepted.forEach((index, booking) -> {
+            results.set(index, new BookingBatchResultDto(index, BookingMapper.toDto(booking), null));
+            itemCalendarCache.update(booking);
+        });
+        accepted.values().stream().map(booking -> booking.getItem().getId()).distinct().forEach(itemDetailsCache::evict);
+        return results;
     }
 
     @Override
     public BookingDto updateBooking(Long bookingId, boolean approved, Long ownerId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException("Booking not found.", bookingId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+        if (!approved && bookingRepository.updateWaitingBookingStatus(bookingId, ownerId, BookingStatus.REJECTED) == 1) {
+            Booking rejected = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException("Booking not found.", bookingId));
+            itemDetailsCache.evict(rejected.getItem().getId());
+            itemCalendarCache.update(rejected);
+            return BookingMapper.toDto(rejected);
+        }
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException("Booking not found.", bookingId));
         validateBookerOwner(booking, ownerId);
         validateNotApprovedBooking(booking);
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toDto(bookingRepository.save(booking));
+        BookingDto savedBooking = BookingMapper.toDto(approved
+                ? bookingOverlapGuard.reserve(booking.getItem().getId(), booking.getId(), booking.getStart(), booking.getEnd(), () -> approve(booking, ownerId))
+                : changeStatus(booking, ownerId, BookingStatus.REJECTED));
+        itemDetailsCache.evict(booking.getItem().getId());
+        itemCalendarCache.update(booking);
+        return savedBooking;
     }
 
     @Override
     public BookingDto findBookingById(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException("Booking not found.", bookingId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException("Booking not found.", bookingId));
         validateBookingAccess(booking, userId);
         return BookingMapper.toDto(booking);
     }
 
     @Override
-    public List<BookingDto> findAllBookingsByOwnerIdAndState(Long bookerId, String state, int from, int size) {
-        validateUser(bookerId);
-        Pageable page = PageRequest.of(from / size, size, Sort.by("start").descending());
-        switch (state) {
-            case "CURRENT":
-                return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(bookerId, LocalDateTime.now(), LocalDateTime.now(), page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "PAST":
-                return bookingRepository.findAllByBookerIdAndEndBefore(bookerId, LocalDateTime.now(), page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "FUTURE":
-                return bookingRepository.findAllByBookerIdAndStartAfter(bookerId, LocalDateTime.now(), page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "WAITING":
-                return bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.WAITING, page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "REJECTED":
-                return bookingRepository.findAllByBookerIdAndStatus(bookerId, BookingStatus.REJECTED, page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "ALL":
-                return bookingRepository.findAllByBookerId(bookerId, page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
+    public String findBookingETag(Long bookingId, Long userId) {
+        BookingVersionView booking = bookingRepository.findVersionById(bookingId).orElseThrow(() -> new EntityNotFoundException("Booking not found.", bookingId));
+        if (!booking.getBookerId().equals(userId) && !booking.getOwnerId().equals(userId)) {
+            throw new IllegalAccessToEntityException("Fail grant access to booking.", bookingId, userId);
         }
-        throw new UnknownStateException(String.format("Unknown state: %s", state), state, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+        return ETags.of(bookingId, booking.getVersion(), booking.getItemVersion(), booking.getBookerName());
+    }
+
+    @Override
+    public List<BookingDto> findAllBookingsByOwnerIdAndState(Long bookerId, String state, int from, int size) {
+        return findBookings(BookingRole.BOOKER, bookerId, state, from, null, size);
     }
 
     @Override
     public List<BookingDto> findAllBookingsForOwnerItemsWithState(Long ownerId, String state, int from, int size) {
-        validateUser(ownerId);
-        Pageable page = PageRequest.of(from / size, size, Sort.by("start").descending());
-        switch (state) {
-            case "CURRENT":
-                return bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(ownerId, LocalDateTime.now(), LocalDateTime.now(), page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "PAST":
-                return bookingRepository.findAllByItemOwnerIdAndEndBefore(ownerId, LocalDateTime.now(), page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "FUTURE":
-                return bookingRepository.findAllByItemOwnerIdAndStartAfter(ownerId, LocalDateTime.now(), page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "WAITING":
-                return bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "REJECTED":
-                return bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
-            case "ALL":
-                return bookingRepository.findAllByItemOwnerId(ownerId, page).stream().map(BookingMapper::toDto).collect(Collectors.toList());
+        return findBookings(BookingRole.OWNER, ownerId, state, from, null, size);
+    }
+
+    @Override
+    public List<BookingDto> findAllBookingsByOwnerIdAndState(Long bookerId, String state, String cursor, int size) {
+        return findBookings(BookingRole.BOOKER, bookerId, state, 0, BookingCursor.decode(cursor), size);
+    }
+
+    @Override
+    public List<BookingDto> findAllBookingsForOwnerItemsWithState(Long ownerId, String state, String cursor, int size) {
+        return findBookings(BookingRole.OWNER, ownerId, state, 0, BookingCursor.decode(cursor), size);
+    }
+
+    @Override
+    public BookingExport exportBookingsByOwnerIdAndState(Long bookerId, String state) {
+        return exportBookings(BookingRole.BOOKER, bookerId, state);
+    }
+
+    @Override
+    public BookingExport exportBookingsForOwnerItemsWithState(Long ownerId, String state) {
+        return exportBookings(BookingRole.OWNER, ownerId, state);
+    }
+
+    private BookingExport exportBookings(BookingRole role, Long userId, String state) {
+        validateUser(userId);
+        BookingQuery query = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .states(BookingState.parse(state))
+                .build();
+        return action -> bookingQueryEngine.forEach(query, booking -> action.accept(BookingMapper.toDto(booking)));
+    }
+
+    private List<BookingDto> findBookings(BookingRole role, Long userId, String state, int offset, BookingCursor after, int size) {
+        validateUser(userId);
+        BookingQuery query = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .states(BookingState.parse(state))
+                .after(after)
+                .offset(offset)
+                .limit(size)
+                .build();
+        return bookingQueryEngine.find(query).stream().map(BookingMapper::toDto).collect(Collectors.toList());
+    }
+
+    //одобрение и счётчик бронирований вещи фиксируются одной транзакцией
+    private Booking approve(Booking booking, Long ownerId) {
+        return transactionOperations.execute(status -> {
+            Booking approved = changeStatus(booking, ownerId, BookingStatus.APPROVED);
+            itemStatsRecorder.bookingApproved(booking.getItem().getId());
+            return approved;
+        });
+    }
+
+    /**
+     * A WAITING booking is moved with one conditional UPDATE, so only one of concurrent decisions wins;
+     * a REJECTED booking is saved under its @Version check. The loser gets BookingStatusChangedException.
+     */
+    private Booking changeStatus(Booking booking, Long ownerId, BookingStatus status) {
+        if (booking.getStatus() == BookingStatus.WAITING) {
+            if (bookingRepository.updateWaitingBookingStatus(booking.getId(), ownerId, status) == 0) {
+                throw new BookingStatusChangedException("Booking status has been changed concurrently.", booking.getId());
+            }
+            booking.setStatus(status);
+            booking.setVersion(booking.getVersion() + 1);
+            return booking;
+        }
+        booking.setStatus(status);
+        try {
+            booking.setVersion(bookingRepository.saveAndFlush(booking).getVersion());
+            return booking;
+        } catch (ObjectOptimisticLockingFailureException exc) {
+            throw new BookingStatusChangedException("Booking status has been changed concurrently.", booking.getId());
         }
-        throw new UnknownStateException(String.format("Unknown state: %s", state), state, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+    }
+
+    //с этого момента читаются подтверждённые интервалы: более ранние не пересекаются ни с одной записью пакета
+    private static LocalDateTime earliestStart(List<BookingDto> bookingDtos) {
+        return bookingDtos.stream()
+                .map(BookingDto::getStart)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElseGet(LocalDateTime::now);
     }
 
     private void validateBookerNotOwner(Booking booking, Long bookerId) {
         if (booking.getItem().getOwner().getId().equals(bookerId)) {
-            throw new IllegalAccessToEntityException("Fail to grant access to book item by owner.", booking.getItem().getId(), bookerId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new IllegalAccessToEntityException("Fail to grant access to book item by owner.", booking.getItem().getId(), bookerId);
         }
     }
 
     private void validateBookerOwner(Booking booking, Long ownerId) {
         if (!booking.getItem().getOwner().getId().equals(ownerId)) {
-            throw new IllegalAccessToEntityException(String.format("Fail to grant access to booking id: %d to user id: %d", booking.getId(), ownerId), booking.getId(), ownerId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new IllegalAccessToEntityException(String.format("Fail to grant access to booking id: %d to user id: %d", booking.getId(), ownerId), booking.getId(), ownerId);
         }
     }
 
     private void validateBookingAccess(Booking booking, Long userId) {
         if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
-            throw new IllegalAccessToEntityException("Fail grant access to booking.", booking.getId(), userId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new IllegalAccessToEntityException("Fail grant access to booking.", booking.getId(), userId);
         }
     }
 
     private void validateUser(Long userId) {
         if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new EntityNotFoundException("User not found.", userId);
         }
     }
 
     private void validateNotApprovedBooking(Booking booking) {
         if (booking.getStatus().equals(BookingStatus.APPROVED)) {
-            throw new BookingStatusAlreadyApprovedException("Booking status has been already approved.", booking.getId(), String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new BookingStatusAlreadyApprovedException("Booking status has been already approved.", booking.getId());
         }
     }
 
     private void assertItemAvailable(Item item) {
         if (!item.getAvailable()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Item is not available.");
         }
     }
 }
\ No newline at end of file
@@ -16,37 +16,77 @@ public class ExceptionController {
 
     @ExceptionHandler(IllegalAccessToEntityException.class)
     ResponseEntity<IllegalAccessToEntityResponse> handleIllegalAccessToItemException(IllegalAccessToEntityException exc) {
-        log.warn(String.format("%s : %s : %d : %d : %s", exc.getTime(), exc.getMessage(), exc.getEntityId(), exc.getUserId(), exc.getBackInfo()));
+        log.warn("{} : {} : {} : {}", exc.getTime(), exc.getMessage(), exc.getEntityId(), exc.getUserId());
+        logThrowSite(exc);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new IllegalAccessToEntityResponse(exc.getTime(), exc.getMessage(), exc.getEntityId(), exc.getUserId()));
     }
 
     @ExceptionHandler(ItemIdNotConsistentException.class)
     ResponseEntity<ItemIdNotConsistentResponse> handleItemIdNotConsistentException(ItemIdNotConsistentException exc) {
-        log.warn(String.format("%s : %s : %d : %d : %s", exc.getMessage(), exc.getItemDto(), exc.getUserId(), exc.getItemId(), exc.getBackInfo()));
+        log.warn("{} : {} : {} : {}", exc.getMessage(), exc.getItemDto(), exc.getUserId(), exc.getItemId());
+        logThrowSite(exc);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ItemIdNotConsistentResponse(exc.getMessage(), exc.getItemDto(), exc.getUserId(), exc.getItemId()));
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
     ResponseEntity<EntityNotFoundResponse> handleEntityNotFoundException(EntityNotFoundException exc) {
-        log.warn(String.format("%s : %s : %s : %s", exc.getTime(), exc.getMessage(), exc.getEntityId(), exc.getBackInfo()));
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getEntityId());
+        logThrowSite(exc);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new EntityNotFoundResponse(exc.getTime(), exc.getMessage(), exc.getEntityId()));
     }
 
     @ExceptionHandler(BookingStatusAlreadyApprovedException.class)
     ResponseEntity<BookingStatusAlreadyApprovedResponse> handleEntityNotFoundException(BookingStatusAlreadyApprovedException exc) {
-        log.warn(String.format("%s : %s : %s : %s", exc.getTime(), exc.getMessage(), exc.getBookingId(), exc.getBackInfo()));
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getBookingId());
+        logThrowSite(exc);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new BookingStatusAlreadyApprovedResponse(exc.getTime(), exc.getMessage(), exc.getBookingId()));
     }
 
     @ExceptionHandler(UnknownStateException.class)
     ResponseEntity<UnknownStateResponse> handleUnknownStateException(UnknownStateException exc) {
-        log.warn(String.format("%s : %s : %s : %s", exc.getTime(), exc.getMessage(), exc.getState(), exc.getBackInfo()));
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getState());
+        logThrowSite(exc);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new UnknownStateResponse(exc.getTime(), exc.getMessage()));
     }
 
     @ExceptionHandler(NoResolvedBookingException.class)
     ResponseEntity<NoResolvedBookingResponse> noResolvedBookingExceptionHandler(NoResolvedBookingException exc) {
-        log.warn(String.format("%s : %s : %s : %s : %s", exc.getTime(), exc.getMessage(), exc.getItemId(), exc.getUserId(), exc.getBackInfo()));
+        log.warn("{} : {} : {} : {}", exc.getTime(), exc.getMessage(), exc.getItemId(), exc.getUserId());
+        logThrowSite(exc);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new NoResolvedBookingResponse(exc.getTime(), exc.getMessage(), exc.getItemId(), exc.getUserId()));
     }
+
+    @ExceptionHandler(BookingOverlapException.class)
+    ResponseEntity<BookingOverlapResponse> handleBookingOverlapException(BookingOverlapException exc) {
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getItemId());
+        logThrowSite(exc);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new BookingOverlapResponse(exc.getTime(), exc.getMessage(), exc.getItemId()));
+    }
+
+    @ExceptionHandler(BookingStatusChangedException.class)
+    ResponseEntity<BookingStatusChangedResponse> handleBookingStatusChangedException(BookingStatusChangedException exc) {
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getBookingId());
+        logThrowSite(exc);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new BookingStatusChangedResponse(exc.getTime(), exc.getMessage(), exc.getBookingId()));
+    }
+
+    @ExceptionHandler(ItemChangedException.class)
+    ResponseEntity<ItemChangedResponse> handleItemChangedException(ItemChangedException exc) {
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getItemId());
+        logThrowSite(exc);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ItemChangedResponse(exc.getTime(), exc.getMessage(), exc.getItemId()));
+    }
+
+    @ExceptionHandler(CommentQueueFullException.class)
+    ResponseEntity<CommentQueueFullResponse> handleCommentQueueFullException(CommentQueueFullException exc) {
+        log.warn("{} : {} : {}", exc.getTime(), exc.getMessage(), exc.getItemId());
+        logThrowSite(exc);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new CommentQueueFullResponse(exc.getTime(), exc.getMessage(), exc.getItemId()));
+    }
+
+    private void logThrowSite(ShareItException exc) {
+        if (exc.getBackInfo() != null) {
+            log.debug("{} thrown at {}", exc.getClass().getSimpleName(), exc.getBackInfo());
+        }
+    }
 }
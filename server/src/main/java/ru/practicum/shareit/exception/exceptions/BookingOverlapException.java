@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class BookingOverlapException extends ShareItException {
+    private final Long itemId;
+
+    public BookingOverlapException(String message, Long itemId) {
+        super(message);
+        this.itemId = itemId;
+    }
+}
@@ -1,18 +1,13 @@
 package ru.practicum.shareit.exception.exceptions;
 
-import lombok.Data;
+import lombok.Getter;
 
-import java.time.LocalDateTime;
+@Getter
+public class BookingStatusAlreadyApprovedException extends ShareItException {
+    private final Long bookingId;
 
-@Data
-public class BookingStatusAlreadyApprovedException extends RuntimeException {
-    private Long bookingId;
-    private String backInfo;
-    private LocalDateTime time;
-
-    public BookingStatusAlreadyApprovedException(String message, Long bookingId, String backInfo) {
+    public BookingStatusAlreadyApprovedException(String message, Long bookingId) {
         super(message);
         this.bookingId = bookingId;
-        this.backInfo = backInfo;
     }
 }
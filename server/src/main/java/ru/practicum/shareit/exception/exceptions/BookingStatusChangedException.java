@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class BookingStatusChangedException extends ShareItException {
+    private final Long bookingId;
+
+    public BookingStatusChangedException(String message, Long bookingId) {
+        super(message);
+        this.bookingId = bookingId;
+    }
+}
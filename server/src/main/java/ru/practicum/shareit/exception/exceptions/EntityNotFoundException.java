@@ -1,25 +1,13 @@
 package ru.practicum.shareit.exception.exceptions;
 
-import lombok.Data;
+import lombok.Getter;
 
-import java.time.LocalDateTime;
+@Getter
+public class EntityNotFoundException extends ShareItException {
+    private final Long entityId;
 
-@Data
-public class EntityNotFoundException extends RuntimeException {
-    private Long entityId;
-    private String backInfo;
-    private LocalDateTime time;
-
-    public EntityNotFoundException(Long entityId, String backInfo) {
-        this.entityId = entityId;
-        this.backInfo = backInfo;
-        this.time = LocalDateTime.now();
-    }
-
-    public EntityNotFoundException(String message, Long entityId, String backInfo) {
+    public EntityNotFoundException(String message, Long entityId) {
         super(message);
         this.entityId = entityId;
-        this.backInfo = backInfo;
-        this.time = LocalDateTime.now();
     }
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class ItemChangedException extends ShareItException {
+    private final Long itemId;
+
+    public ItemChangedException(String message, Long itemId) {
+        super(message);
+        this.itemId = itemId;
+    }
+}
@@ -4,16 +4,13 @@ import lombok.Getter;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 @Getter
-public class ItemIdNotConsistentException extends RuntimeException {
-
-    private final String backInfo;
+public class ItemIdNotConsistentException extends ShareItException {
     private final ItemDto itemDto;
     private final Long userId;
     private final Long itemId;
 
-    public ItemIdNotConsistentException(String backInfo, String message, ItemDto itemDto, Long userId, Long itemId) {
+    public ItemIdNotConsistentException(String message, ItemDto itemDto, Long userId, Long itemId) {
         super(message);
-        this.backInfo = backInfo;
         this.itemDto = itemDto;
         this.userId = userId;
         this.itemId = itemId;
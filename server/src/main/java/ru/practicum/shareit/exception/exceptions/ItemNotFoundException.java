@@ -2,18 +2,12 @@ package ru.practicum.shareit.exception.exceptions;
 
 import lombok.Getter;
 
-import java.time.LocalDateTime;
-
 @Getter
-public class ItemNotFoundException extends RuntimeException {
+public class ItemNotFoundException extends ShareItException {
     private final Long itemId;
-    private final String backInfo;
-    private final LocalDateTime time;
 
-    public ItemNotFoundException(Long itemId, String backInfo) {
+    public ItemNotFoundException(Long itemId) {
         super(String.format("Item id: %d not found.", itemId));
-        time = LocalDateTime.now();
         this.itemId = itemId;
-        this.backInfo = backInfo;
     }
 }
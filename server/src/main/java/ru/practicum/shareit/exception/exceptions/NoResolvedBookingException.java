@@ -1,21 +1,15 @@
 package ru.practicum.shareit.exception.exceptions;
 
-import lombok.Data;
+import lombok.Getter;
 
-import java.time.LocalDateTime;
+@Getter
+public class NoResolvedBookingException extends ShareItException {
+    private final Long itemId;
+    private final Long userId;
 
-@Data
-public class NoResolvedBookingException extends RuntimeException {
-    private Long itemId;
-    private Long userId;
-    private LocalDateTime time;
-    private String backInfo;
-
-    public NoResolvedBookingException(String message, Long itemId, Long userId, String backInfo) {
+    public NoResolvedBookingException(String message, Long itemId, Long userId) {
         super(message);
         this.itemId = itemId;
         this.userId = userId;
-        this.backInfo = backInfo;
-        this.time = LocalDateTime.now();
     }
 }
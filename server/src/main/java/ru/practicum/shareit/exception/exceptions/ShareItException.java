@@ -0,0 +1,34 @@
+package ru.practicum.shareit.exception.exceptions;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+
+/**
+ * Base class for expected domain errors that {@code ExceptionController} turns into 4xx responses.
+ * They are thrown on every missing id or forbidden access, so the stack trace is not filled in;
+ * the throw site is resolved with {@link StackWalker} only when debug logging is enabled for this class.
+ */
+@Getter
+@Slf4j
+public abstract class ShareItException extends RuntimeException {
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final LocalDateTime time;
+    private final String backInfo;
+
+    protected ShareItException(String message) {
+        super(message, null, false, false);
+        this.time = LocalDateTime.now();
+        this.backInfo = log.isDebugEnabled() ? findThrowSite() : null;
+    }
+
+    private static String findThrowSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !Throwable.class.isAssignableFrom(frame.getDeclaringClass()))
+                .findFirst()
+                .map(frame -> frame.toStackTraceElement().toString())
+                .orElse(null));
+    }
+}
@@ -1,19 +1,13 @@
 package ru.practicum.shareit.exception.exceptions;
 
-import lombok.Data;
+import lombok.Getter;
 
-import java.time.LocalDateTime;
+@Getter
+public class UnknownStateException extends ShareItException {
+    private final String state;
 
-@Data
-public class UnknownStateException extends RuntimeException {
-    private String state;
-    private String backInfo;
-    private LocalDateTime time;
-
-    public UnknownStateException(String message, String state, String backInfo) {
+    public UnknownStateException(String message, String state) {
         super(message);
         this.state = state;
-        this.backInfo = backInfo;
-        this.time = LocalDateTime.now();
     }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The part of a booking the availability calendar needs.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BookingSlot {
+    private final Long bookingId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BookingStatus status;
+}
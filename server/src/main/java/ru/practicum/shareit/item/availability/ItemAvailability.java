@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.Interval;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ItemAvailability {
+
+    /**
+     * Merges slots sorted by start into busy (approved) and pending (waiting) intervals clipped to {@code [from, to)}
+     * in one pass; free intervals are the gaps between busy ones. Touching intervals are merged.
+     */
+    public static ItemAvailabilityDto of(Long itemId, LocalDateTime from, LocalDateTime to, List<BookingSlot> slots) {
+        List<Interval> busy = new ArrayList<>();
+        List<Interval> pending = new ArrayList<>();
+        for (BookingSlot slot : slots) {
+            LocalDateTime start = slot.getStart().isBefore(from) ? from : slot.getStart();
+            LocalDateTime end = slot.getEnd().isAfter(to) ? to : slot.getEnd();
+            if (start.isBefore(end)) {
+                merge(slot.getStatus() == BookingStatus.APPROVED ? busy : pending, start, end);
+            }
+        }
+        List<Interval> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (Interval interval : busy) {
+            if (freeFrom.isBefore(interval.getStart())) {
+                free.add(new Interval(freeFrom, interval.getStart()));
+            }
+            freeFrom = interval.getEnd();
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new Interval(freeFrom, to));
+        }
+        return new ItemAvailabilityDto(itemId, from, to, free, busy, pending);
+    }
+
+    private static void merge(List<Interval> intervals, LocalDateTime start, LocalDateTime end) {
+        Interval last = intervals.isEmpty() ? null : intervals.get(intervals.size() - 1);
+        if (last == null || last.getEnd().isBefore(start)) {
+            intervals.add(new Interval(start, end));
+        } else if (last.getEnd().isBefore(end)) {
+            last.setEnd(end);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.availability;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Waiting and approved bookings of one item that end after {@code coveredFrom}, sorted by start.
+ * Bookings that ended are dropped on update, moving {@code coveredFrom} forward.
+ */
+class ItemCalendar {
+    private static final Comparator<BookingSlot> BY_START = Comparator.comparing(BookingSlot::getStart)
+            .thenComparing(BookingSlot::getBookingId);
+
+    private final NavigableSet<BookingSlot> slots = new TreeSet<>(BY_START);
+    private final Map<Long, BookingSlot> slotsById = new HashMap<>();
+    private LocalDateTime coveredFrom;
+
+    ItemCalendar(LocalDateTime coveredFrom, Collection<BookingSlot> slots) {
+        this.coveredFrom = coveredFrom;
+        slots.forEach(this::add);
+    }
+
+    synchronized boolean covers(LocalDateTime from) {
+        return !from.isBefore(coveredFrom);
+    }
+
+    /**
+     * Slots overlapping {@code [from, to)} sorted by start.
+     */
+    synchronized List<BookingSlot> between(LocalDateTime from, LocalDateTime to) {
+        List<BookingSlot> found = new ArrayList<>();
+        for (BookingSlot slot : slots) {
+            if (!slot.getStart().isBefore(to)) {
+                break;
+            }
+            if (slot.getEnd().isAfter(from)) {
+                found.add(slot);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Replaces the slot of the same booking; rejected and canceled bookings are removed.
+     */
+    synchronized void put(BookingSlot slot, LocalDateTime now) {
+        BookingSlot previous = slotsById.remove(slot.getBookingId());
+        if (previous != null) {
+            slots.remove(previous);
+        }
+        if (slot.getStatus() == BookingStatus.WAITING || slot.getStatus() == BookingStatus.APPROVED) {
+            add(slot);
+        }
+        slots.removeIf(ended -> !ended.getEnd().isAfter(now) && slotsById.remove(ended.getBookingId()) != null);
+        coveredFrom = coveredFrom.isAfter(now) ? coveredFrom : now;
+    }
+
+    private void add(BookingSlot slot) {
+        slots.add(slot);
+        slotsById.put(slot.getBookingId(), slot);
+    }
+}
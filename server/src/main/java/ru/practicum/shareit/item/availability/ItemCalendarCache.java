@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Availability calendars keyed by item id. Unlike item details, a calendar is not evicted by booking writes:
+ * creating, approving and rejecting a booking update the loaded calendar of its item in place.
+ * Ranges starting before a calendar was loaded are not covered and are read from the database.
+ */
+@Component
+public class ItemCalendarCache {
+    private static final String CACHE_NAME = "itemCalendar";
+
+    private final boolean enabled;
+    private final Cache<Long, ItemCalendar> cache;
+
+    public ItemCalendarCache(@Value("${shareit.item.availability.cache.enabled:true}") boolean enabled,
+                             @Value("${shareit.item.availability.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${shareit.item.availability.cache.ttl:PT1H}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Slots of the item overlapping {@code [from, to)} sorted by start, or empty if the cache is disabled
+     * or does not cover {@code from}. The loader gets the item id and returns the slots ending after now.
+     */
+    public Optional<List<BookingSlot>> find(Long itemId, LocalDateTime from, LocalDateTime to,
+                                            Function<Long, Collection<BookingSlot>> loader) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!enabled || from.isBefore(now)) {
+            return Optional.empty();
+        }
+        ItemCalendar calendar = cache.get(itemId, id -> new ItemCalendar(now, loader.apply(id)));
+        return calendar.covers(from) ? Optional.of(calendar.between(from, to)) : Optional.empty();
+    }
+
+    /**
+     * Applies a saved booking to the calendar of its item if that calendar is loaded.
+     * Runs after the booking is committed; a calendar being loaded at the same time is updated once its load completes.
+     */
+    public void update(Booking booking) {
+        BookingSlot slot = new BookingSlot(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus());
+        cache.asMap().computeIfPresent(booking.getItem().getId(), (itemId, calendar) -> {
+            calendar.put(slot, LocalDateTime.now());
+            return calendar;
+        });
+    }
+}
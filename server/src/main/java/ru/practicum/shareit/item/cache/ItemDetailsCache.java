@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Owner view of item details (comments, last and next approved booking) keyed by item id.
+ * Entries are evicted by item, comment and booking writes and never outlive the start of the next booking,
+ * after which the last/next pair computed at load time is no longer correct.
+ */
+@Component
+public class ItemDetailsCache {
+    private static final String CACHE_NAME = "itemDetails";
+
+    private final Cache<Long, Entry> cache;
+
+    public ItemDetailsCache(@Value("${shareit.item.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${shareit.item.cache.ttl:PT5M}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Entry get(Long itemId, Function<Long, Entry> loader) {
+        return cache.get(itemId, loader);
+    }
+
+    public void evict(Long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final ItemWithBookingsDto item;
+        private final long itemVersion;
+        private final LocalDateTime validUntil;
+    }
+
+    @RequiredArgsConstructor
+    private static class EntryExpiry implements Expiry<Long, Entry> {
+        private final Duration ttl;
+
+        @Override
+        public long expireAfterCreate(Long itemId, Entry entry, long currentTime) {
+            if (entry.getValidUntil() == null) {
+                return ttl.toNanos();
+            }
+            Duration untilInvalid = Duration.between(LocalDateTime.now(), entry.getValidUntil());
+            return Math.max(0, Math.min(ttl.toNanos(), untilInvalid.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.comment;
+
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Comment;
+
+/**
+ * Stores validated comments; the implementation is selected with {@code shareit.item.comment.write.mode}.
+ */
+public interface CommentWriter {
+    /**
+     * Returns the stored comment, or the accepted one without id when it is written later.
+     */
+    CommentDto write(Comment comment);
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.comment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
+
+/**
+ * Inserts each comment in the request that creates it.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.comment.write.mode", havingValue = "sync", matchIfMissing = true)
+public class SyncCommentWriter implements CommentWriter {
+    private final CommentRepository commentRepository;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemStatsRecorder itemStatsRecorder;
+    private final TransactionOperations transactionOperations;
+
+    //отзыв и счётчик отзывов вещи фиксируются одной транзакцией, кэш сбрасывается после её завершения
+    @Override
+    public CommentDto write(Comment comment) {
+        CommentDto savedComment = transactionOperations.execute(status -> {
+            Comment saved = commentRepository.save(comment);
+            itemStatsRecorder.commentsAdded(comment.getItem().getId(), 1, comment.getCreated());
+            return CommentMapper.toCommentDto(saved);
+        });
+        itemDetailsCache.evict(comment.getItem().getId());
+        return savedComment;
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.item.comment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.exception.exceptions.CommentQueueFullException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Puts validated comments into a bounded queue and answers right away; one background thread inserts them
+ * with a single saveAll (JDBC batch) when {@code batch-size} comments are waiting or {@code flush-interval}
+ * has passed since the first of them. A full queue is reported with {@link CommentQueueFullException} (429).
+ * On shutdown the queue is drained for up to {@code drain-timeout}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.comment.write.mode", havingValue = "write-behind")
+public class WriteBehindCommentWriter implements CommentWriter {
+    private static final String METER_PREFIX = "shareit.comments.write-behind";
+    //будит поток записи при остановке, чтобы он не ждал flush-interval
+    private static final Comment WAKE_UP = Comment.builder().build();
+
+    private final CommentRepository commentRepository;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemStatsRecorder itemStatsRecorder;
+    private final TransactionOperations transactionOperations;
+    private final BlockingQueue<Comment> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration drainTimeout;
+    private final ExecutorService flusher;
+    private final Timer flushTimer;
+    private final Counter rejected;
+    private final Counter failed;
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    public WriteBehindCommentWriter(CommentRepository commentRepository,
+                                    ItemDetailsCache itemDetailsCache,
+                                    ItemStatsRecorder itemStatsRecorder,
+                                    TransactionOperations transactionOperations,
+                                    @Value("${shareit.item.comment.write-behind.capacity:10000}") int capacity,
+                                    @Value("${shareit.item.comment.write-behind.batch-size:50}") int batchSize,
+                                    @Value("${shareit.item.comment.write-behind.flush-interval:PT0.2S}") Duration flushInterval,
+                                    @Value("${shareit.item.comment.write-behind.drain-timeout:PT30S}") Duration drainTimeout,
+                                    MeterRegistry meterRegistry) {
+        this.commentRepository = commentRepository;
+        this.itemDetailsCache = itemDetailsCache;
+        this.itemStatsRecorder = itemStatsRecorder;
+        this.transactionOperations = transactionOperations;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.drainTimeout = drainTimeout;
+        this.flushTimer = meterRegistry.timer(METER_PREFIX + ".flush");
+        this.rejected = meterRegistry.counter(METER_PREFIX + ".rejected");
+        this.failed = meterRegistry.counter(METER_PREFIX + ".failed");
+        Gauge.builder(METER_PREFIX + ".queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.flusher = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "comment-write-behind"));
+        this.flusher.execute(this::run);
+    }
+
+    @Override
+    public CommentDto write(Comment comment) {
+        //проверка running и offer выполняются под общей блокировкой, чтобы close() не проскочил между ними
+        boolean accepted;
+        acceptLock.readLock().lock();
+        try {
+            accepted = running && queue.offer(comment);
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new CommentQueueFullException("Too many comments, try again later.", comment.getItem().getId());
+        }
+        return CommentMapper.toCommentDto(comment);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        //после снятия running ни один отзыв уже не попадёт в очередь, и поток записи дочитает её до конца
+        acceptLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        queue.offer(WAKE_UP);
+        flusher.shutdown();
+        if (!flusher.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.error("{} comments were not written before shutdown.", queue.size());
+            flusher.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Comment first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null || first == WAKE_UP) {
+                    continue;
+                }
+                List<Comment> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize && running) {
+                    Comment next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null || next == WAKE_UP) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                batch.removeIf(comment -> comment == WAKE_UP);
+                flushTimer.record(() -> flush(batch));
+            }
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //при ошибке пакета отзывы записываются по одному, чтобы один неверный отзыв не потерял остальные;
+    //счётчики отзывов увеличиваются в той же транзакции, что и запись
+    private void flush(List<Comment> batch) {
+        List<Comment> saved = batch;
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                commentRepository.saveAll(batch);
+                addToStats(batch);
+            });
+        } catch (RuntimeException batchExc) {
+            saved = new ArrayList<>(batch.size());
+            for (Comment comment : batch) {
+                try {
+                    comment.setId(null);
+                    transactionOperations.executeWithoutResult(status -> {
+                        commentRepository.save(comment);
+                        addToStats(List.of(comment));
+                    });
+                    saved.add(comment);
+                } catch (RuntimeException exc) {
+                    failed.increment();
+                    log.error("Comment of user {} to item {} was not written.", comment.getAuthor().getId(), comment.getItem().getId(), exc);
+                }
+            }
+        }
+        saved.stream()
+                .map(comment -> comment.getItem().getId())
+                .distinct()
+                .forEach(itemDetailsCache::evict);
+    }
+
+    private void addToStats(List<Comment> comments) {
+        comments.stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(Comment::getCreated, Collectors.toList())))
+                .forEach((itemId, created) -> itemStatsRecorder.commentsAdded(itemId, created.size(), Collections.max(created)));
+    }
+}
@@ -1,12 +1,17 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,6 +19,8 @@ import java.util.List;
 @RequiredArgsConstructor
 @Validated
 public class ItemController {
+    public static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+
     private final ItemService itemService;
 
     @PostMapping
@@ -22,27 +29,60 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto updateItem(@RequestBody ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) throws IllegalAccessException {
+    public ItemDto updateItem(@RequestBody ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
         return itemService.updateItem(itemDto, userId, itemId);
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto findItemById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ItemDto findItemById(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId, WebRequest request) {
+        if (request.checkNotModified(itemService.findItemETag(itemId, userId))) {
+            return null;
+        }
         return itemService.findItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> findItemComments(
+            @PathVariable Long itemId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "10") int size) {
+        return itemService.findItemComments(itemId, afterId, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto findItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.findItemAvailability(itemId, from, to);
+    }
+
     @GetMapping
-    public List<ItemDto> findOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.findOwnerItems(userId);
+    public ResponseEntity<List<ItemDto>> findOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam long afterId,
+            @RequestParam int size) {
+        List<ItemDto> items = itemService.findOwnerItems(userId, afterId, size);
+        //полная страница может быть не последней: afterId следующей передаётся в заголовке
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!items.isEmpty() && items.size() == size) {
+            response.header(NEXT_AFTER_ID_HEADER, String.valueOf(items.get(items.size() - 1).getId()));
+        }
+        return response.body(items);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchAvailableItems(@RequestParam String text) {
-        return itemService.searchAvailableItems(text);
+    public List<ItemDto> searchAvailableItems(
+            @RequestParam String text,
+            @RequestParam int from,
+            @RequestParam int size) {
+        return itemService.searchAvailableItems(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public CommentDto createComment(@RequestBody CommentDto commentDto, @PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.createComment(commentDto, itemId, userId);
+    public ResponseEntity<CommentDto> createComment(@RequestBody CommentDto commentDto, @PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId) {
+        CommentDto comment = itemService.createComment(commentDto, itemId, userId);
+        //в режиме write-behind отзыв только поставлен в очередь на запись и ещё не получил id
+        return comment.getId() == null ? ResponseEntity.accepted().body(comment) : ResponseEntity.ok(comment);
     }
 }
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ItemAvailabilityDto {
+
+    private Long itemId;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private List<Interval> free;
+
+    private List<Interval> busy;
+
+    private List<Interval> pending;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Interval {
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStats;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.user.model.User;
 
@@ -29,6 +30,26 @@ public class ItemMapper {
                 item.getItemRequest() != null ? item.getItemRequest().getId() : null);
     }
 
+    public static void applyStats(ItemWithBookingsDto dto, ItemStats stats) {
+        if (stats != null) {
+            dto.setCommentCount(stats.getCommentCount());
+            dto.setLastCommentAt(stats.getLastCommentAt());
+            dto.setBookingCount(stats.getBookingCount());
+        }
+    }
+
+    public static void applyPatch(Item item, ItemDto patch) {
+        if (patch.getName() != null) {
+            item.setName(patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            item.setDescription(patch.getDescription());
+        }
+        if (patch.getAvailable() != null) {
+            item.setAvailable(patch.getAvailable());
+        }
+    }
+
     public static Item toItem(ItemDto dto) {
         return Item.builder()
                 .name(dto.getName())
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingBookerIdDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -14,6 +15,14 @@ public class ItemWithBookingsDto extends ItemDto {
 
     private List<CommentDto> comments;
 
+    private Long nextCommentsAfterId;
+
+    private long commentCount;
+
+    private LocalDateTime lastCommentAt;
+
+    private long bookingCount;
+
     public ItemWithBookingsDto(Long id, String name, String description, Boolean available, Long ownerId, Long requestId) {
         super(id, name, description, available, ownerId, requestId);
     }
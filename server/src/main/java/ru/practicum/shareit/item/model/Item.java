@@ -29,4 +29,7 @@ public class Item {
 
     @ManyToOne(fetch = FetchType.LAZY)
     private Request itemRequest;
+
+    @Version
+    private long version;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "item_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemStats {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private long commentCount;
+
+    private LocalDateTime lastCommentAt;
+
+    private long bookingCount;
+}
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
@@ -8,5 +11,6 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemIdOrderById(Long itemId);
+    @Query("select c from Comment c join fetch c.author where c.item.id = :itemId and c.id > :afterId order by c.id")
+    List<Comment> findAllByItemIdAndIdGreaterThan(@Param("itemId") Long itemId, @Param("afterId") long afterId, Pageable page);
 }
@@ -1,16 +1,44 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerIdOrderByIdAsc(Long id);
+    String SEARCH_VECTOR = "(setweight(to_tsvector('simple', i.name), 'A') || setweight(to_tsvector('simple', i.description), 'B'))";
 
-    List<Item> findAllByDescriptionContainingIgnoreCaseAndAvailable(String partialDescription, boolean available);
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long afterId, Pageable page);
 
-    List<Item> findAllByItemRequestId(Long requestId);
+    @Query(value = "select * from items i " +
+            "where i.available = true and lower(i.description) like :pattern " +
+            "order by i.id " +
+            "limit :size offset :from",
+            nativeQuery = true)
+    List<Item> searchAvailableDescriptionContaining(@Param("pattern") String pattern, @Param("from") int from, @Param("size") int size);
+
+    @Query(value = "select * from items i " +
+            "where i.available = true and " + SEARCH_VECTOR + " @@ plainto_tsquery('simple', :text) " +
+            "order by ts_rank(" + SEARCH_VECTOR + ", plainto_tsquery('simple', :text)) desc, i.id " +
+            "limit :size offset :from",
+            nativeQuery = true)
+    List<Item> searchAvailableFullText(@Param("text") String text, @Param("from") int from, @Param("size") int size);
+
+    @Query(value = "select * from items i " +
+            "where i.available = true and (lower(i.name) like :pattern or lower(i.description) like :pattern) " +
+            "order by i.id " +
+            "limit :size offset :from",
+            nativeQuery = true)
+    List<Item> searchAvailableContaining(@Param("pattern") String pattern, @Param("from") int from, @Param("size") int size);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.owner.id, i.itemRequest.id) " +
+            "from Item i where i.itemRequest.id in :requestIds order by i.id")
+    List<ItemDto> findAllByItemRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
 }
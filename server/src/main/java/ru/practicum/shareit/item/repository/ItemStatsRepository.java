@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.ItemStats;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ItemStatsRepository extends JpaRepository<ItemStats, Long> {
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ItemStats s set s.commentCount = s.commentCount + :count, " +
+            "s.lastCommentAt = case when s.lastCommentAt is null or s.lastCommentAt < :created then :created else s.lastCommentAt end " +
+            "where s.itemId = :itemId")
+    int addComments(@Param("itemId") Long itemId, @Param("count") long count, @Param("created") LocalDateTime created);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ItemStats s set s.bookingCount = s.bookingCount + 1 where s.itemId = :itemId")
+    int addApprovedBooking(@Param("itemId") Long itemId);
+
+    @Query("select new ru.practicum.shareit.item.model.ItemStats(i.id, " +
+            "(select count(c) from Comment c where c.item = i), " +
+            "(select max(c.created) from Comment c where c.item = i), " +
+            "(select count(b) from Booking b where b.item = i and b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED)) " +
+            "from Item i where i.id = :itemId")
+    Optional<ItemStats> countByItemId(@Param("itemId") Long itemId);
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.mode", havingValue = "contains", matchIfMissing = true)
+public class ContainsItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> searchAvailable(String text, int from, int size) {
+        return itemRepository.searchAvailableDescriptionContaining(SearchTerms.likePattern(text), from, size);
+    }
+}
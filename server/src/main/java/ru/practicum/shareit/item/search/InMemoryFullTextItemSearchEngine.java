@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over name and description for databases without full-text support (H2).
+ * Only available items are indexed; every term of the query must match, hits are ranked by weighted term frequency.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.mode", havingValue = "memory")
+public class InMemoryFullTextItemSearchEngine implements ItemSearchEngine {
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ItemRepository itemRepository;
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> itemTerms = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadIndex() {
+        itemRepository.findAll().forEach(this::index);
+    }
+
+    @Override
+    public synchronized void index(Item item) {
+        Set<String> oldTerms = itemTerms.remove(item.getId());
+        if (oldTerms != null) {
+            oldTerms.forEach(term -> postings.computeIfPresent(term, (key, items) -> {
+                items.remove(item.getId());
+                return items.isEmpty() ? null : items;
+            }));
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        SearchTerms.tokenize(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        SearchTerms.tokenize(item.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(item.getId(), weight));
+        itemTerms.put(item.getId(), weights.keySet());
+    }
+
+    @Override
+    public List<Item> searchAvailable(String text, int from, int size) {
+        Set<String> terms = new LinkedHashSet<>(SearchTerms.tokenize(text));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> scores = null;
+        for (String term : terms) {
+            Map<Long, Integer> termPostings = postings.getOrDefault(term, Map.of());
+            if (scores == null) {
+                scores = new HashMap<>(termPostings);
+            } else {
+                scores.keySet().retainAll(termPostings.keySet());
+                scores.replaceAll((itemId, score) -> score + termPostings.getOrDefault(itemId, 0));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Long> ids = scores.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        return ItemSearchResults.loadPage(itemRepository, ids, item -> containsAllTerms(item, terms), from, size);
+    }
+
+    private boolean containsAllTerms(Item item, Set<String> terms) {
+        Set<String> itemTerms = new HashSet<>(SearchTerms.tokenize(item.getName()));
+        itemTerms.addAll(SearchTerms.tokenize(item.getDescription()));
+        return itemTerms.containsAll(terms);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pure-Java counterpart of the pg_trgm substring search for H2: trigram postings narrow the candidates,
+ * which are then checked with a case-insensitive "contains" over name and description, ordered by id.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.mode", havingValue = "ngram")
+public class InMemoryNGramItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, String[]> itemTexts = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    public void loadIndex() {
+        itemRepository.findAll().forEach(this::index);
+    }
+
+    @Override
+    public synchronized void index(Item item) {
+        String[] oldTexts = itemTexts.remove(item.getId());
+        if (oldTexts != null) {
+            grams(oldTexts).forEach(gram -> postings.computeIfPresent(gram, (key, items) -> {
+                items.remove(item.getId());
+                return items.isEmpty() ? null : items;
+            }));
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        String[] texts = {normalize(item.getName()), normalize(item.getDescription())};
+        grams(texts).forEach(gram -> postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(item.getId()));
+        itemTexts.put(item.getId(), texts);
+    }
+
+    @Override
+    public List<Item> searchAvailable(String text, int from, int size) {
+        if (text.isBlank()) {
+            return List.of();
+        }
+        String pattern = normalize(text);
+        List<Long> ids = candidates(pattern)
+                .filter(itemId -> matches(itemTexts.get(itemId), pattern))
+                .collect(Collectors.toList());
+        return ItemSearchResults.loadPage(itemRepository, ids,
+                item -> matches(new String[]{normalize(item.getName()), normalize(item.getDescription())}, pattern), from, size);
+    }
+
+    private Stream<Long> candidates(String pattern) {
+        if (pattern.length() < GRAM_LENGTH) {
+            return itemTexts.keySet().stream();
+        }
+        List<Set<Long>> sets = new ArrayList<>();
+        for (String gram : grams(new String[]{pattern})) {
+            Set<Long> items = postings.get(gram);
+            if (items == null) {
+                return Stream.empty();
+            }
+            sets.add(items);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new TreeSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result.stream();
+    }
+
+    private static boolean matches(String[] texts, String pattern) {
+        if (texts == null) {
+            return false;
+        }
+        for (String text : texts) {
+            if (text.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> grams(String[] texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
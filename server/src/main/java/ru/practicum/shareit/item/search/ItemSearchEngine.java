@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> searchAvailable(String text, int from, int size);
+
+    default void index(Item item) {
+    }
+}
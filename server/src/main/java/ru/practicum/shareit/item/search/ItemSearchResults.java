@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory indexes only produce candidates: the page is cut from entities re-checked against the database,
+ * so entries left behind by rolled back or concurrent transactions never leak into results or shift pages.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class ItemSearchResults {
+
+    static List<Item> loadPage(ItemRepository itemRepository, List<Long> candidateIds, Predicate<Item> matches, int from, int size) {
+        List<Item> page = new ArrayList<>(size);
+        int toSkip = from;
+        int chunkSize = from + size;
+        for (int start = 0; start < candidateIds.size() && page.size() < size; start += chunkSize) {
+            List<Long> ids = candidateIds.subList(start, Math.min(start + chunkSize, candidateIds.size()));
+            Map<Long, Item> items = itemRepository.findAllById(ids)
+                    .stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : ids) {
+                Item item = items.get(id);
+                if (item == null || !Boolean.TRUE.equals(item.getAvailable()) || !matches.test(item)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                page.add(item);
+                if (page.size() == size) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Ranked search over name and description backed by the items_search_idx GIN index from the V3 migration.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.mode", havingValue = "fulltext")
+public class PostgresFullTextItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> searchAvailable(String text, int from, int size) {
+        if (text.isBlank()) {
+            return List.of();
+        }
+        return itemRepository.searchAvailableFullText(text, from, size);
+    }
+}
@@ -1,20 +1,28 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     ItemDto createItem(ItemDto itemDto, Long userId);
 
-    ItemDto updateItem(ItemDto itemDto, Long userId, Long itemId) throws IllegalAccessException;
+    ItemDto updateItem(ItemDto itemDto, Long userId, Long itemId);
 
     ItemDto findItemById(Long itemId, Long userId);
 
-    List<ItemDto> findOwnerItems(Long userId);
+    String findItemETag(Long itemId, Long userId);
 
-    List<ItemDto> searchAvailableItems(String text);
+    List<CommentDto> findItemComments(Long itemId, long afterId, int size);
+
+    ItemAvailabilityDto findItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemDto> findOwnerItems(Long userId, long afterId, int size);
+
+    List<ItemDto> searchAvailableItems(String text, int from, int size);
 
     CommentDto createComment(CommentDto commentDto, Long itemId, Long userId);
 }
@@ -1,141 +1,277 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingBookerIdDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exception.exceptions.IllegalAccessToEntityException;
+import ru.practicum.shareit.exception.exceptions.ItemChangedException;
 import ru.practicum.shareit.exception.exceptions.ItemIdNotConsistentException;
 import ru.practicum.shareit.exception.exceptions.NoResolvedBookingException;
+import ru.practicum.shareit.item.availability.ItemAvailability;
+import ru.practicum.shareit.item.availability.ItemCalendarCache;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentWriter;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStats;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.lang.reflect.Field;
 import java.time.LocalDateTime;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int COMMENTS_PAGE_SIZE = 10;
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final RequestRepository requestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemCalendarCache itemCalendarCache;
+    private final CommentWriter commentWriter;
+    private final ItemStatsRepository itemStatsRepository;
+    private final ItemStatsRecorder itemStatsRecorder;
 
     @Override
     public ItemDto createItem(ItemDto itemDto, Long userId) {
-        User owner = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+        User owner = userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId));
         Request request;
         if (itemDto.getRequestId() != null) {
-            request = requestRepository.findById(itemDto.getRequestId()).orElseThrow(() -> new EntityNotFoundException("Request not found.", itemDto.getRequestId(), String.valueOf(Thread.currentThread().getStackTrace()[1])));
+            request = requestRepository.findById(itemDto.getRequestId()).orElseThrow(() -> new EntityNotFoundException("Request not found.", itemDto.getRequestId()));
         } else {
             request = null;
         }
-        return ItemMapper.toItemDto(itemRepository.save(ItemMapper.toItem(itemDto, owner, request)));
+        Item item = itemRepository.save(ItemMapper.toItem(itemDto, owner, request));
+        itemStatsRecorder.itemCreated(item.getId());
+        itemSearchEngine.index(item);
+        return ItemMapper.toItemDto(item);
     }
 
     @Override
-    public ItemDto updateItem(ItemDto itemDto, Long userId, Long itemId) throws IllegalAccessException {
-        validateUserAccess(userId, itemId);
+    public ItemDto updateItem(ItemDto itemDto, Long userId, Long itemId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException("Item not found.", itemId));
+        validateUserAccess(item, userId);
         validateItemIdConsistency(itemDto, userId, itemId);
-        Item itemToSave = ItemMapper.toItem(itemDto);
-        itemToSave.setOwner(userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]))));
-        buildItemEntity(itemToSave, itemId);
-        return ItemMapper.toItemDto(itemRepository.save(itemToSave));
+        ItemMapper.applyPatch(item, itemDto);
+        Item savedItem = save(item);
+        itemSearchEngine.index(savedItem);
+        itemDetailsCache.evict(itemId);
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
     public ItemDto findItemById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException("Item not found.", itemId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
-        ItemWithBookingsDto dto = ItemMapper.toItemWithBookingsDto(item);
-        dto.setComments(commentRepository.findAllByItemIdOrderById(itemId).stream().map(CommentMapper::toCommentDto).collect(Collectors.toList()));
-        return userId.equals(item.getOwner().getId()) ? setBookingBookerIdDto(dto) : dto;
+        ItemWithBookingsDto dto = itemDetailsCache.get(itemId, this::loadItemDetails).getItem();
+        //кэшированный экземпляр общий для всех читателей, наружу отдаётся только копия
+        return copyOf(dto, userId.equals(dto.getOwnerId()));
+    }
+
+    /**
+     * Built from the cached details: the item version, its comment count and, for the owner, the booking count
+     * and the last and next booking.
+     */
+    @Override
+    public String findItemETag(Long itemId, Long userId) {
+        ItemDetailsCache.Entry entry = itemDetailsCache.get(itemId, this::loadItemDetails);
+        ItemWithBookingsDto dto = entry.getItem();
+        if (!userId.equals(dto.getOwnerId())) {
+            return ETags.of(itemId, entry.getItemVersion(), dto.getCommentCount(), dto.getLastCommentAt());
+        }
+        return ETags.of(itemId, entry.getItemVersion(), dto.getCommentCount(), dto.getLastCommentAt(), dto.getBookingCount(),
+                dto.getLastBooking() != null ? dto.getLastBooking().getId() : null,
+                dto.getNextBooking() != null ? dto.getNextBooking().getId() : null);
+    }
+
+    @Override
+    public List<CommentDto> findItemComments(Long itemId, long afterId, int size) {
+        assertPositiveSize(size);
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException("Item not found.", itemId);
+        }
+        return findComments(itemId, afterId, size);
+    }
+
+    @Override
+    public ItemAvailabilityDto findItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must be before to.");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException("Item not found.", itemId);
+        }
+        List<BookingStatus> statuses = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+        return ItemAvailability.of(itemId, from, to, itemCalendarCache
+                .find(itemId, from, to, id -> bookingRepository.findSlotsByItemIdEndingAfter(id, statuses, LocalDateTime.now()))
+                .orElseGet(() -> bookingRepository.findSlotsByItemId(itemId, statuses, from, to)));
     }
 
     @Override
-    public List<ItemDto> findOwnerItems(Long userId) {
+    public List<ItemDto> findOwnerItems(Long userId, long afterId, int size) {
+        assertPositiveSize(size);
         if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new EntityNotFoundException("User not found.", userId);
         }
-        return itemRepository.findAllByOwnerIdOrderByIdAsc(userId)
-                .stream()
+        List<Item> items = itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(userId, afterId, PageRequest.of(0, size));
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<ItemBookingView.Kind, Map<Long, ItemBookingView>> bookings = findLastAndNextBookings(itemIds, now);
+        Map<Long, ItemBookingView> lastBookings = bookings.get(ItemBookingView.Kind.LAST);
+        Map<Long, ItemBookingView> nextBookings = bookings.get(ItemBookingView.Kind.NEXT);
+        Map<Long, ItemStats> stats = new HashMap<>();
+        itemStatsRepository.findAllById(itemIds).forEach(itemStats -> stats.put(itemStats.getItemId(), itemStats));
+        //строки статистики нет у вещей, записанных в обход сервиса: она строится подсчётом при чтении
+        itemIds.stream()
+                .filter(itemId -> !stats.containsKey(itemId))
+                .forEach(itemId -> itemStatsRecorder.recount(itemId).ifPresent(itemStats -> stats.put(itemId, itemStats)));
+        //в списке только счётчики отзывов, сами отзывы читаются постранично через GET /items/{itemId}/comments
+        return items.stream()
                 .map(ItemMapper::toItemWithBookingsDto)
-                .map(this::setBookingBookerIdDto)
-                .map(this::setCommentsToDto)
+                .map(dto -> {
+                    dto.setLastBooking(BookingMapper.toBookingBookerIdDto(lastBookings.get(dto.getId())));
+                    dto.setNextBooking(BookingMapper.toBookingBookerIdDto(nextBookings.get(dto.getId())));
+                    dto.setComments(new ArrayList<>());
+                    ItemMapper.applyStats(dto, stats.get(dto.getId()));
+                    return dto;
+                })
                 .sorted(Comparator.comparingLong(ItemDto::getId))
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemDto> searchAvailableItems(String text) {
-        return itemRepository.findAllByDescriptionContainingIgnoreCaseAndAvailable(text, true).stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
+    public List<ItemDto> searchAvailableItems(String text, int from, int size) {
+        return itemSearchEngine.searchAvailable(text, from, size).stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
     }
 
     @Override
     public CommentDto createComment(CommentDto commentDto, Long itemId, Long userId) {
-        validateResolvedBooking(itemId, userId);
-        Comment comment = buildCommentEntity(commentDto, itemId, userId);
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        Booking resolvedBooking = findResolvedBooking(itemId, userId);
+        return commentWriter.write(buildCommentEntity(commentDto, resolvedBooking));
     }
 
-    private void validateResolvedBooking(Long itemId, Long userId) {
-        bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId, BookingStatus.APPROVED, LocalDateTime.now()).orElseThrow(() -> new NoResolvedBookingException("No resolved booking found.", itemId, userId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+    private Booking findResolvedBooking(Long itemId, Long userId) {
+        return bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(itemId, userId, BookingStatus.APPROVED, LocalDateTime.now()).orElseThrow(() -> new NoResolvedBookingException("No resolved booking found.", itemId, userId));
     }
 
-    private Comment buildCommentEntity(CommentDto commentDto, Long itemId, Long userId) {
+    //вещь и автор отзыва загружены вместе с завершённым бронированием
+    private Comment buildCommentEntity(CommentDto commentDto, Booking resolvedBooking) {
         return Comment.builder()
-                .item(itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException("Item not found.", itemId, String.valueOf(Thread.currentThread().getStackTrace()[1]))))
-                .author(userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]))))
+                .item(resolvedBooking.getItem())
+                .author(resolvedBooking.getBooker())
                 .text(commentDto.getText())
                 .created(commentDto.getCreated() == null ? LocalDateTime.now() : commentDto.getCreated())
                 .build();
     }
 
-    private void validateUserAccess(Long userId, Long itemId) {
-        Item existedItem = itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException("User not found.", itemId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
-        if (!existedItem.getOwner().getId().equals(userId)) {
-            throw new IllegalAccessToEntityException(String.format("Fail to grant access user id: %s to item id: %s", userId, itemId), itemId, userId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+    //вещь сохраняется под проверкой @Version: из двух одновременных изменений проигравшее получает 409
+    private Item save(Item item) {
+        try {
+            return itemRepository.save(item);
+        } catch (ObjectOptimisticLockingFailureException exc) {
+            throw new ItemChangedException("Item has been changed concurrently.", item.getId());
+        }
+    }
+
+    private void assertPositiveSize(int size) {
+        if (size <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Size must be positive.");
+        }
+    }
+
+    private void validateUserAccess(Item item, Long userId) {
+        if (!item.getOwner().getId().equals(userId)) {
+            throw new IllegalAccessToEntityException(String.format("Fail to grant access user id: %s to item id: %s", userId, item.getId()), item.getId(), userId);
         }
     }
 
     private void validateItemIdConsistency(ItemDto itemDto, Long userId, Long itemId) {
         if (itemDto.getId() != null && !itemDto.getId().equals(itemId)) {
-            throw new ItemIdNotConsistentException(LocalDateTime.now() + " : " + Thread.currentThread().getStackTrace()[1], String.format("Fail to validate id consistensy for dto: %s and itemId: %s", itemDto, itemId), itemDto, userId, itemId);
+            throw new ItemIdNotConsistentException(String.format("Fail to validate id consistensy for dto: %s and itemId: %s", itemDto, itemId), itemDto, userId, itemId);
         }
     }
 
-    private ItemWithBookingsDto setBookingBookerIdDto(ItemWithBookingsDto dto) {
-        dto.setLastBooking(BookingMapper.toBookingBookerIdDto(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(dto.getId(), LocalDateTime.now(), BookingStatus.APPROVED).orElse(null)));
-        dto.setNextBooking(BookingMapper.toBookingBookerIdDto(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(dto.getId(), LocalDateTime.now(), BookingStatus.APPROVED).orElse(null)));
-        return dto;
+    private ItemDetailsCache.Entry loadItemDetails(Long itemId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException("Item not found.", itemId));
+        ItemWithBookingsDto dto = ItemMapper.toItemWithBookingsDto(item);
+        List<CommentDto> comments = findComments(itemId, 0, COMMENTS_PAGE_SIZE + 1);
+        if (comments.size() > COMMENTS_PAGE_SIZE) {
+            comments = new ArrayList<>(comments.subList(0, COMMENTS_PAGE_SIZE));
+            dto.setNextCommentsAfterId(comments.get(COMMENTS_PAGE_SIZE - 1).getId());
+        }
+        dto.setComments(comments);
+        ItemMapper.applyStats(dto, itemStatsRepository.findById(itemId)
+                .or(() -> itemStatsRecorder.recount(itemId))
+                .orElse(null));
+        LocalDateTime now = LocalDateTime.now();
+        Map<ItemBookingView.Kind, Map<Long, ItemBookingView>> bookings = findLastAndNextBookings(List.of(itemId), now);
+        ItemBookingView lastBooking = bookings.get(ItemBookingView.Kind.LAST).get(itemId);
+        ItemBookingView nextBooking = bookings.get(ItemBookingView.Kind.NEXT).get(itemId);
+        dto.setLastBooking(BookingMapper.toBookingBookerIdDto(lastBooking));
+        dto.setNextBooking(BookingMapper.toBookingBookerIdDto(nextBooking));
+        return new ItemDetailsCache.Entry(dto, item.getVersion(), nextBooking != null ? nextBooking.getStart() : null);
     }
 
-    private ItemWithBookingsDto setCommentsToDto(ItemWithBookingsDto dto) {
-        dto.setComments(commentRepository.findAllByItemIdOrderById(dto.getId()).stream().map(CommentMapper::toCommentDto).collect(Collectors.toList()));
-        return dto;
+    private ItemWithBookingsDto copyOf(ItemWithBookingsDto dto, boolean withBookings) {
+        ItemWithBookingsDto result = new ItemWithBookingsDto(dto.getId(), dto.getName(), dto.getDescription(), dto.getAvailable(), dto.getOwnerId(), dto.getRequestId());
+        result.setComments(dto.getComments().stream()
+                .map(comment -> new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(), comment.getCreated()))
+                .collect(Collectors.toList()));
+        result.setNextCommentsAfterId(dto.getNextCommentsAfterId());
+        result.setCommentCount(dto.getCommentCount());
+        result.setLastCommentAt(dto.getLastCommentAt());
+        if (withBookings) {
+            result.setLastBooking(copyOf(dto.getLastBooking()));
+            result.setNextBooking(copyOf(dto.getNextBooking()));
+            result.setBookingCount(dto.getBookingCount());
+        }
+        return result;
+    }
+
+    private BookingBookerIdDto copyOf(BookingBookerIdDto booking) {
+        return booking != null ? new BookingBookerIdDto(booking.getId(), booking.getBookerId()) : null;
+    }
+
+    private List<CommentDto> findComments(Long itemId, long afterId, int size) {
+        return commentRepository.findAllByItemIdAndIdGreaterThan(itemId, afterId, PageRequest.of(0, size))
+                .stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
     }
 
-    private void buildItemEntity(Item itemToSave, Long itemId) throws IllegalAccessException {
-        Item itemRepo = itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException("Item not found.", itemId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
-        Class<? extends Item> clss = itemRepo.getClass();
-        for (Field field : clss.getDeclaredFields()) {
-            field.setAccessible(true);
-            if (field.get(itemToSave) == null) {
-                field.set(itemToSave, field.get(itemRepo));
-            }
+    private Map<ItemBookingView.Kind, Map<Long, ItemBookingView>> findLastAndNextBookings(Collection<Long> itemIds, LocalDateTime now) {
+        Map<ItemBookingView.Kind, Map<Long, ItemBookingView>> bookings = new EnumMap<>(ItemBookingView.Kind.class);
+        for (ItemBookingView.Kind kind : ItemBookingView.Kind.values()) {
+            bookings.put(kind, new HashMap<>());
         }
+        bookingRepository.findLastAndNextBookingsForItems(itemIds, now, BookingStatus.APPROVED.name())
+                .forEach(booking -> bookings.get(booking.getKind()).put(booking.getItemId(), booking));
+        return bookings;
     }
 }
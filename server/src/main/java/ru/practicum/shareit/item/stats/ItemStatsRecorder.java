@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.ItemStats;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps the item_stats row of an item in step with its comments and approved bookings by single-row increments,
+ * so item pages read the counts without scanning comments or bookings. Increments join the transaction
+ * of the write they count. A missing row (an item written around the service) is built by counting
+ * the source tables in its own transaction, which sees only committed writes.
+ */
+@Slf4j
+@Component
+public class ItemStatsRecorder {
+    private final ItemStatsRepository itemStatsRepository;
+    private final TransactionTemplate recountTransaction;
+
+    public ItemStatsRecorder(ItemStatsRepository itemStatsRepository, PlatformTransactionManager transactionManager) {
+        this.itemStatsRepository = itemStatsRepository;
+        this.recountTransaction = new TransactionTemplate(transactionManager);
+        this.recountTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void itemCreated(Long itemId) {
+        itemStatsRepository.save(new ItemStats(itemId, 0, null, 0));
+    }
+
+    //пересчёт не видит ещё не зафиксированную запись, поэтому после него счётчик увеличивается заново
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void commentsAdded(Long itemId, long count, LocalDateTime lastCreated) {
+        if (itemStatsRepository.addComments(itemId, count, lastCreated) == 0 && recount(itemId).isPresent()) {
+            itemStatsRepository.addComments(itemId, count, lastCreated);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookingApproved(Long itemId) {
+        if (itemStatsRepository.addApprovedBooking(itemId) == 0 && recount(itemId).isPresent()) {
+            itemStatsRepository.addApprovedBooking(itemId);
+        }
+    }
+
+    /**
+     * Builds and saves the missing row from committed comments and bookings; empty if the item does not exist.
+     */
+    public Optional<ItemStats> recount(Long itemId) {
+        try {
+            return recountTransaction.execute(status -> itemStatsRepository.countByItemId(itemId)
+                    .map(itemStatsRepository::saveAndFlush));
+        } catch (DataIntegrityViolationException exc) {
+            log.warn("Stats of item {} were created concurrently.", itemId);
+            return itemStatsRepository.findById(itemId);
+        }
+    }
+}
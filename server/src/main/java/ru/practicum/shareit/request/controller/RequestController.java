@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.RequestDesc;
 import ru.practicum.shareit.request.dto.RequestWithItems;
 import ru.practicum.shareit.request.service.RequestService;
@@ -22,7 +23,10 @@ public class RequestController {
     }
 
     @GetMapping
-    List<RequestWithItems> findAllOwnersRequests(@RequestHeader("X-Sharer-User-Id") long userId) {
+    List<RequestWithItems> findAllOwnersRequests(@RequestHeader("X-Sharer-User-Id") long userId, WebRequest request) {
+        if (request.checkNotModified(requestService.findOwnersRequestsETag(userId))) {
+            return null;
+        }
         return requestService.findAllOwnersRequests(userId);
     }
 
@@ -35,7 +39,10 @@ public class RequestController {
     }
 
     @GetMapping("/{requestId}")
-    RequestWithItems findRequestById(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long requestId) {
+    RequestWithItems findRequestById(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long requestId, WebRequest request) {
+        if (request.checkNotModified(requestService.findRequestETag(userId, requestId))) {
+            return null;
+        }
         return requestService.findRequestById(userId, requestId);
     }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.request.dto;
+
+/**
+ * Aggregated versions of requests and the items offered for them, enough to tell whether
+ * {@link RequestWithItems} responses have changed without loading them.
+ */
+public interface RequestVersionView {
+    long getRequestCount();
+
+    long getRequestVersionSum();
+
+    long getLastRequestId();
+
+    long getItemCount();
+
+    long getItemVersionSum();
+
+    long getLastItemId();
+}
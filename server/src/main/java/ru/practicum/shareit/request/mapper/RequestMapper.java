@@ -1,22 +1,20 @@
 package ru.practicum.shareit.request.mapper;
 
-import ru.practicum.shareit.item.dto.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.RequestWithItems;
 import ru.practicum.shareit.request.model.Request;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class RequestMapper {
 
-    public static RequestWithItems toRequestWithItems(Request request, List<Item> items) {
+    public static RequestWithItems toRequestWithItems(Request request, List<ItemDto> items) {
         return RequestWithItems
                 .builder()
                 .id(request.getId())
                 .description(request.getDescription())
                 .created(request.getCreated())
-                .items(items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList()))
+                .items(items)
                 .build();
     }
 
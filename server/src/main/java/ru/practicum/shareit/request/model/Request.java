@@ -26,4 +26,7 @@ public class Request {
     private User requestor;
 
     private LocalDateTime created;
+
+    @Version
+    private long version;
 }
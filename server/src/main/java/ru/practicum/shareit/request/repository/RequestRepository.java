@@ -2,7 +2,10 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.dto.RequestVersionView;
 import ru.practicum.shareit.request.model.Request;
 
 import java.util.List;
@@ -12,4 +15,16 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findAllByRequestorIdOrderByCreatedDesc(Long ownerId);
 
     List<Request> findAllByRequestorIdNot(Long requestorId, Pageable pageable);
+
+    @Query("select count(distinct r.id) as requestCount, coalesce(sum(r.version), 0) as requestVersionSum, " +
+            "coalesce(max(r.id), 0) as lastRequestId, count(i.id) as itemCount, " +
+            "coalesce(sum(i.version), 0) as itemVersionSum, coalesce(max(i.id), 0) as lastItemId " +
+            "from Request r left join Item i on i.itemRequest = r where r.id = :requestId")
+    RequestVersionView findVersionById(@Param("requestId") long requestId);
+
+    @Query("select count(distinct r.id) as requestCount, coalesce(sum(r.version), 0) as requestVersionSum, " +
+            "coalesce(max(r.id), 0) as lastRequestId, count(i.id) as itemCount, " +
+            "coalesce(sum(i.version), 0) as itemVersionSum, coalesce(max(i.id), 0) as lastItemId " +
+            "from Request r left join Item i on i.itemRequest = r where r.requestor.id = :requestorId")
+    RequestVersionView findVersionByRequestorId(@Param("requestorId") long requestorId);
 }
@@ -13,4 +13,8 @@ public interface RequestService {
     List<RequestWithItems> findAllRequests(long userId, int from, int size);
 
     RequestWithItems findRequestById(long userId, long requestId);
+
+    String findOwnersRequestsETag(long userId);
+
+    String findRequestETag(long userId, long requestId);
 }
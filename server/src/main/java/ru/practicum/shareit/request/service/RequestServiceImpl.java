@@ -5,10 +5,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.RequestDesc;
+import ru.practicum.shareit.request.dto.RequestVersionView;
 import ru.practicum.shareit.request.dto.RequestWithItems;
 import ru.practicum.shareit.request.mapper.RequestMapper;
 import ru.practicum.shareit.request.model.Request;
@@ -16,7 +18,9 @@ import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,7 +34,7 @@ public class RequestServiceImpl implements RequestService {
     public RequestWithItems createRequest(RequestDesc requestDesc, long userId) {
         Request request = Request.builder()
                 .description(requestDesc.getDescription())
-                .requestor(userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]))))
+                .requestor(userRepository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId)))
                 .created(LocalDateTime.now())
                 .build();
         return RequestMapper.toRequestWithItems(requestRepository.save(request));
@@ -39,10 +43,7 @@ public class RequestServiceImpl implements RequestService {
     @Override
     public List<RequestWithItems> findAllOwnersRequests(long userId) {
         assertUserExists(userId);
-        return requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId)
-                .stream()
-                .map(request -> RequestMapper.toRequestWithItems(request, findItemsForRequest(request)))
-                .collect(Collectors.toList());
+        return toRequestsWithItems(requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId));
     }
 
     @Override
@@ -64,26 +65,54 @@ public class RequestServiceImpl implements RequestService {
                 .map(request -> RequestMapper.toRequestWithItems(request, findItemsForRequest(request)))
                 .collect(Collectors.toList());*/
         Pageable page = PageRequest.of(from / size, size, Sort.by("created").descending());
-        return requestRepository.findAllByRequestorIdNot(userId, page)
-                .stream()
-                .map(request -> RequestMapper.toRequestWithItems(request, findItemsForRequest(request)))
-                .collect(Collectors.toList());
+        return toRequestsWithItems(requestRepository.findAllByRequestorIdNot(userId, page));
     }
 
     @Override
     public RequestWithItems findRequestById(long userId, long requestId) {
         assertUserExists(userId);
-        Request request = requestRepository.findById(requestId).orElseThrow(() -> new EntityNotFoundException("Request not found.", requestId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
-        return RequestMapper.toRequestWithItems(request, findItemsForRequest(request));
+        Request request = requestRepository.findById(requestId).orElseThrow(() -> new EntityNotFoundException("Request not found.", requestId));
+        return toRequestsWithItems(List.of(request)).get(0);
+    }
+
+    @Override
+    public String findOwnersRequestsETag(long userId) {
+        assertUserExists(userId);
+        return toETag(requestRepository.findVersionByRequestorId(userId));
+    }
+
+    @Override
+    public String findRequestETag(long userId, long requestId) {
+        assertUserExists(userId);
+        RequestVersionView version = requestRepository.findVersionById(requestId);
+        if (version.getRequestCount() == 0) {
+            throw new EntityNotFoundException("Request not found.", requestId);
+        }
+        return toETag(version);
+    }
+
+    private static String toETag(RequestVersionView version) {
+        return ETags.of(version.getRequestCount(), version.getRequestVersionSum(), version.getLastRequestId(),
+                version.getItemCount(), version.getItemVersionSum(), version.getLastItemId());
     }
 
     private void assertUserExists(long userId) {
         if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            throw new EntityNotFoundException("User not found.", userId);
         }
     }
 
-    private List<Item> findItemsForRequest(Request request) {
-        return itemRepository.findAllByItemRequestId(request.getId());
+    private List<RequestWithItems> toRequestsWithItems(List<Request> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = requests.stream().map(Request::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequestId = itemRepository.findAllByItemRequestIdIn(requestIds)
+                .stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        return requests.stream()
+                .map(request -> RequestMapper.toRequestWithItems(request,
+                        itemsByRequestId.getOrDefault(request.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 }
@@ -33,7 +33,7 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public UserDto patchUser(@RequestBody User user, @PathVariable Long userId) throws IllegalAccessException {
+    public UserDto patchUser(@RequestBody User user, @PathVariable Long userId) {
         return service.patchUser(user, userId);
     }
 
@@ -18,4 +18,13 @@ public class UserMapper {
     public static User toUser(UserDto dto) {
         return new User(dto.getId(), dto.getName(), dto.getEmail());
     }
+
+    public static void applyPatch(User user, User patch) {
+        if (patch.getName() != null) {
+            user.setName(patch.getName());
+        }
+        if (patch.getEmail() != null) {
+            user.setEmail(patch.getEmail());
+        }
+    }
 }
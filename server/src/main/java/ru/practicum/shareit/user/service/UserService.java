@@ -15,7 +15,7 @@ public interface UserService {
 
     List<UserDto> findAllUsers();
 
-    UserDto patchUser(User user, Long userId) throws IllegalAccessException;
+    UserDto patchUser(User user, Long userId);
 
     void deleteUserById(Long userId);
 }
@@ -11,7 +11,6 @@ import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -30,7 +29,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto findUserById(Long userId) {
-        return UserMapper.toDto(repository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId, String.valueOf(Thread.currentThread().getStackTrace()[1]))));
+        return UserMapper.toDto(repository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId)));
     }
 
     @Override
@@ -39,10 +38,13 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserDto patchUser(User user, Long userId) throws IllegalAccessException {
-        buildUserEntity(user, userId);
-        assertUniqueEmail(user);
-        return UserMapper.toDto(repository.save(user));
+    public UserDto patchUser(User user, Long userId) {
+        User repoUser = repository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", userId));
+        if (user.getEmail() != null) {
+            assertUniqueEmail(user.getEmail(), userId);
+        }
+        UserMapper.applyPatch(repoUser, user);
+        return UserMapper.toDto(repository.save(repoUser));
     }
 
     @Override
@@ -50,21 +52,9 @@ public class UserServiceImpl implements UserService {
         repository.deleteById(userId);
     }
 
-    private void buildUserEntity(User user, Long userId) throws IllegalAccessException {
-        User repoUser = repository.findById(userId).orElseThrow(() -> new EntityNotFoundException("User not found.", user.getId(), String.valueOf(Thread.currentThread().getStackTrace()[1])));
-
-        Class<? extends User> cls = user.getClass();
-        for (Field field : cls.getDeclaredFields()) {
-            field.setAccessible(true);
-            if (field.get(user) == null) {
-                field.set(user, field.get(repoUser));
-            }
-        }
-    }
-
-    private void assertUniqueEmail(User user) {
-        Optional<User> userOpt = repository.findByEmail(user.getEmail());
-        if (userOpt.isPresent() && !userOpt.get().getId().equals(user.getId())) {
+    private void assertUniqueEmail(String email, Long userId) {
+        Optional<User> userOpt = repository.findByEmail(email);
+        if (userOpt.isPresent() && !userOpt.get().getId().equals(userId)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT);
         }
     }
@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS item_stats (
+    item_id BIGINT PRIMARY KEY REFERENCES items(id) ON DELETE CASCADE,
+    comment_count BIGINT NOT NULL DEFAULT 0,
+    last_comment_at TIMESTAMP,
+    booking_count BIGINT NOT NULL DEFAULT 0
+    );
+
+INSERT INTO item_stats (item_id, comment_count, last_comment_at, booking_count)
+SELECT i.id,
+       (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id),
+       (SELECT MAX(c.created) FROM comments c WHERE c.item_id = i.id),
+       (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED')
+FROM items i;
@@ -35,4 +35,4 @@ CREATE TABLE IF NOT EXISTS comments (
     author_id BIGINT REFERENCES users(id) ON DELETE CASCADE,
     text varchar(1024) NOT NULL,
     created TIMESTAMP NOT NULL
-    );
\ No newline at end of file
+    );
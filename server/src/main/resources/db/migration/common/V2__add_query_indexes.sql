@@ -0,0 +1,17 @@
+CREATE INDEX IF NOT EXISTS items_owner_id_id_idx ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS items_item_request_id_idx ON items (item_request_id);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_start_idx ON bookings (item_id, status, start);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_start_idx ON bookings (item_id, start);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_booker_id_finish_idx ON bookings (item_id, booker_id, finish);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_id_start_idx ON bookings (booker_id, start);
+
+CREATE INDEX IF NOT EXISTS comments_item_id_id_idx ON comments (item_id, id);
+
+CREATE INDEX IF NOT EXISTS requests_requestor_id_created_idx ON requests (requestor_id, created);
+
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created);
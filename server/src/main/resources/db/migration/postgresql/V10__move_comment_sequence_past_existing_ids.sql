@@ -0,0 +1 @@
+SELECT setval('comments_seq', (SELECT COALESCE(MAX(id), 0) FROM comments) + 50);
@@ -0,0 +1,28 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Подтверждённые бронирования одной вещи могли пересекаться до этого ограничения.
+-- Проходим их по возрастанию id: бронирование, пересекающееся с более ранним подтверждённым,
+-- возвращается в WAITING, чтобы владелец принял решение заново.
+DO $$
+DECLARE
+    approved RECORD;
+BEGIN
+    FOR approved IN
+        SELECT id FROM bookings WHERE status = 'APPROVED' ORDER BY item_id, id
+    LOOP
+        UPDATE bookings b SET status = 'WAITING', version = b.version + 1
+        WHERE b.id = approved.id
+          AND EXISTS (SELECT 1 FROM bookings o
+                      WHERE o.item_id = b.item_id
+                        AND o.status = 'APPROVED'
+                        AND o.id < b.id
+                        AND tsrange(o.start, o.finish) && tsrange(b.start, b.finish));
+        IF FOUND THEN
+            RAISE WARNING 'Booking % overlaps an earlier approved booking of its item and was moved back to WAITING', approved.id;
+        END IF;
+    END LOOP;
+END $$;
+
+ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+    EXCLUDE USING GIST (item_id WITH =, tsrange(start, finish) WITH &&)
+    WHERE (status = 'APPROVED');
@@ -0,0 +1 @@
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) FROM bookings) + 50);
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.exception.controller.ExceptionController;
+import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.exception.exceptions.ShareItException;
+import ru.practicum.shareit.user.controller.UserController;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /users/{id} for a missing user, from the controller through {@link ExceptionController} to the 404 body.
+ * {@code legacy} repeats the two stack walks every throw site used to do (getStackTrace()[1] and a filled-in trace),
+ * {@code lightweight} is the current behaviour, {@code lightweight-debug} the same with the throw site captured.
+ * Handler warn logging is switched off so that only exception construction and handling are compared.
+ * Run with {@code mvn -pl server -Pbenchmark test-compile exec:exec -Djmh.args=NotFoundPathBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundPathBenchmark {
+    @Param({"legacy", "lightweight", "lightweight-debug"})
+    private String mode;
+
+    private MockMvc mvc;
+    private Throwable legacyTrace;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(ExceptionController.class)).setLevel(Level.ERROR);
+        ((Logger) LoggerFactory.getLogger(ShareItException.class)).setLevel(mode.endsWith("debug") ? Level.DEBUG : Level.INFO);
+        boolean legacy = "legacy".equals(mode);
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.findUserById(Mockito.anyLong())).thenAnswer(invocation -> {
+            if (legacy) {
+                legacyTrace = new Throwable(String.valueOf(Thread.currentThread().getStackTrace()[1]));
+            }
+            throw new EntityNotFoundException("User not found.", invocation.getArgument(0, Long.class));
+        });
+        mvc = MockMvcBuilders.standaloneSetup(new UserController(userService))
+                .setControllerAdvice(new ExceptionController())
+                .build();
+    }
+
+    @Benchmark
+    public MvcResult findMissingUser() throws Exception {
+        return mvc.perform(get("/users/{userId}", 100L)).andReturn();
+    }
+}
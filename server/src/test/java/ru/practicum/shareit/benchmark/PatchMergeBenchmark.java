@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective PATCH merge that item and user updates used to perform
+ * with the field-by-field {@code applyPatch} mappers.
+ * Run with {@code mvn -pl server -Pbenchmark test-compile exec:exec -Djmh.args=PatchMergeBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchMergeBenchmark {
+    private Item storedItem;
+    private User storedUser;
+    private ItemDto itemPatch;
+    private User userPatch;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1L, "owner", "owner@email.ru");
+        Request request = new Request(1L, "request_desc", owner, LocalDateTime.now(), 0L);
+        storedItem = new Item(1L, "item_name", "item_desc", true, owner, request, 0L);
+        storedUser = new User(2L, "user", "user@email.ru");
+        itemPatch = ItemDto.builder().available(false).build();
+        userPatch = new User(null, "updated_name", null);
+    }
+
+    @Benchmark
+    public Item itemReflectiveMerge() throws IllegalAccessException {
+        Item itemToSave = ItemMapper.toItem(itemPatch);
+        itemToSave.setOwner(storedItem.getOwner());
+        copyMissingFields(itemToSave, storedItem);
+        return itemToSave;
+    }
+
+    @Benchmark
+    public Item itemApplyPatch() {
+        ItemMapper.applyPatch(storedItem, itemPatch);
+        return storedItem;
+    }
+
+    @Benchmark
+    public User userReflectiveMerge() throws IllegalAccessException {
+        User user = new User(userPatch.getId(), userPatch.getName(), userPatch.getEmail());
+        copyMissingFields(user, storedUser);
+        return user;
+    }
+
+    @Benchmark
+    public User userApplyPatch() {
+        UserMapper.applyPatch(storedUser, userPatch);
+        return storedUser;
+    }
+
+    private static <T> void copyMissingFields(T target, T source) throws IllegalAccessException {
+        for (Field field : source.getClass().getDeclaredFields()) {
+            field.setAccessible(true);
+            if (field.get(target) == null) {
+                field.set(target, field.get(source));
+            }
+        }
+    }
+}
@@ -1,22 +1,49 @@
 package ru.practicum.shareit.integration;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.query.BookingCursor;
+import ru.practicum.shareit.booking.query.BookingQuery;
+import ru.practicum.shareit.booking.query.BookingQueryEngine;
+import ru.practicum.shareit.booking.query.BookingRole;
+import ru.practicum.shareit.booking.query.BookingState;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.exception.exceptions.BookingOverlapException;
+import ru.practicum.shareit.exception.exceptions.BookingStatusAlreadyApprovedException;
+import ru.practicum.shareit.exception.exceptions.BookingStatusChangedException;
+import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.exception.exceptions.IllegalAccessToEntityException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest(
         properties = "db.name=test",
@@ -27,6 +54,8 @@ public class BookingServiceImplTest {
     private final ItemServiceImpl itemService;
     private final UserServiceImpl userService;
     private final BookingServiceImpl bookingService;
+    private final BookingQueryEngine bookingQueryEngine;
+    private final EntityManager entityManager;
     User owner;
     User booker;
     ItemDto itemDto;
@@ -41,20 +70,21 @@ public class BookingServiceImplTest {
         ownerId = userService.createUser(owner).getId();
         bookerId = userService.createUser(booker).getId();
         itemId = itemService.createItem(itemDto, ownerId).getId();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         bookingDto = BookingDto.builder()
                 .itemId(itemId)
-                .start(LocalDateTime.now().plusSeconds(10))
-                .end(LocalDateTime.now().plusSeconds(20))
+                .start(now.plusSeconds(10))
+                .end(now.plusSeconds(20))
                 .build();
         bookingDto1 = BookingDto.builder()
                 .itemId(itemId)
-                .start(LocalDateTime.now().minusSeconds(10))
-                .end(LocalDateTime.now().plusSeconds(10))
+                .start(now.minusSeconds(10))
+                .end(now.plusSeconds(10))
                 .build();
         bookingDto2 = BookingDto.builder()
                 .itemId(itemId)
-                .start(LocalDateTime.now().minusSeconds(5))
-                .end(LocalDateTime.now().plusSeconds(5))
+                .start(now.minusSeconds(5))
+                .end(now.plusSeconds(5))
                 .build();
     }
 
@@ -239,4 +269,301 @@ public class BookingServiceImplTest {
                 .element(0)
                 .isEqualTo(bookingDto1);
     }
+
+    /*Страница бронирований загружается одним запросом вместе с вещами и бронирующими
+     * (плюс один запрос проверки существования пользователя).*/
+    @Test
+    @Transactional
+    public void findAllBookingsForOwnerItemsWithState_pageLoadedWithSingleStatement() {
+        createBookingsForDifferentItemsAndBookers();
+        Statistics statistics = clearPersistenceContextAndStatistics();
+
+        List<BookingDto> bookings = bookingService.findAllBookingsForOwnerItemsWithState(ownerId, "ALL", 0, 20);
+
+        assertThat(bookings).hasSize(3);
+        assertThat(bookings).extracting(booking -> booking.getBooker().getName()).doesNotContainNull();
+        assertThat(bookings).extracting(booking -> booking.getItem().getName()).doesNotContainNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    public void findAllBookingsByOwnerIdAndState_pageLoadedWithSingleStatement() {
+        createBookingsForDifferentItemsAndBookers();
+        Statistics statistics = clearPersistenceContextAndStatistics();
+
+        List<BookingDto> bookings = bookingService.findAllBookingsByOwnerIdAndState(bookerId, "ALL", 0, 20);
+
+        assertThat(bookings).hasSize(2);
+        assertThat(bookings).extracting(booking -> booking.getItem().getName()).doesNotContainNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    /*Несколько состояний через запятую выбираются одним запросом*/
+    @Test
+    @Transactional
+    public void findAllBookingsForOwnerItemsWithStateWaitingAndCurrent_singleStatement() {
+        BookingDto pastBooking = BookingDto.builder()
+                .itemId(itemId)
+                .start(bookingDto1.getStart().minusSeconds(20))
+                .end(bookingDto1.getStart().minusSeconds(10))
+                .build();
+        bookingDto = bookingService.createBooking(bookingDto, bookerId);
+        bookingDto1 = bookingService.createBooking(bookingDto1, bookerId);
+        pastBooking = bookingService.createBooking(pastBooking, bookerId);
+        bookingService.updateBooking(pastBooking.getId(), false, ownerId);
+        Statistics statistics = clearPersistenceContextAndStatistics();
+
+        assertThat(bookingService.findAllBookingsForOwnerItemsWithState(ownerId, "WAITING,CURRENT", 0, 20))
+                .extracting(BookingDto::getId)
+                .containsExactly(bookingDto.getId(), bookingDto1.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(bookingService.findAllBookingsForOwnerItemsWithState(ownerId, "REJECTED,ALL", 0, 20)).hasSize(3);
+    }
+
+    /*Следующая страница читается после курсора (start, id) последнего бронирования предыдущей*/
+    @Test
+    @Transactional
+    public void bookingQueryEngine_keysetCursor_nextPageAfterCursor() {
+        bookingDto = bookingService.createBooking(bookingDto, bookerId);
+        bookingDto1 = bookingService.createBooking(bookingDto1, bookerId);
+        bookingDto2 = bookingService.createBooking(bookingDto2, bookerId);
+        BookingQuery.BookingQueryBuilder query = BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(bookerId)
+                .states(BookingState.parse("ALL"))
+                .limit(2);
+
+        List<Booking> firstPage = bookingQueryEngine.find(query.build());
+        Booking last = firstPage.get(firstPage.size() - 1);
+        List<Booking> secondPage = bookingQueryEngine.find(query.after(new BookingCursor(last.getStart(), last.getId())).build());
+
+        assertThat(firstPage).extracting(Booking::getId).containsExactly(bookingDto.getId(), bookingDto2.getId());
+        assertThat(secondPage).extracting(Booking::getId).containsExactly(bookingDto1.getId());
+    }
+
+    /*Страницы по курсору: следующая начинается сразу после последнего бронирования предыдущей,
+     * каждая читается одним запросом независимо от глубины*/
+    @Test
+    @Transactional
+    public void findAllBookingsByOwnerIdAndState_cursorPages_succeed() {
+        bookingDto = bookingService.createBooking(bookingDto, bookerId);
+        bookingDto1 = bookingService.createBooking(bookingDto1, bookerId);
+        bookingDto2 = bookingService.createBooking(bookingDto2, bookerId);
+
+        List<BookingDto> firstPage = bookingService.findAllBookingsByOwnerIdAndState(bookerId, "ALL", 0, 2);
+        BookingDto last = firstPage.get(firstPage.size() - 1);
+        Statistics statistics = clearPersistenceContextAndStatistics();
+        List<BookingDto> secondPage = bookingService.findAllBookingsByOwnerIdAndState(bookerId, "ALL",
+                new BookingCursor(last.getStart(), last.getId()).encode(), 2);
+
+        assertThat(firstPage).extracting(BookingDto::getId).containsExactly(bookingDto.getId(), bookingDto2.getId());
+        assertThat(secondPage).extracting(BookingDto::getId).containsExactly(bookingDto1.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(bookingService.findAllBookingsByOwnerIdAndState(bookerId, "ALL", 1, 2))
+                .extracting(BookingDto::getId)
+                .containsExactly(bookingDto2.getId(), bookingDto1.getId());
+    }
+
+    @Test
+    @Transactional
+    public void findAllBookingsForOwnerItemsWithState_invalidCursor_exceptionThrown() {
+        assertThatThrownBy(() -> bookingService.findAllBookingsForOwnerItemsWithState(ownerId, "ALL", "not-a-cursor", 2))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    /*Выгрузка отдаёт все бронирования от новых к старым, контекст персистентности очищается порциями*/
+    @Test
+    @Transactional
+    public void exportBookingsForOwnerItemsWithState_allBookings_persistenceContextCleared() {
+        LocalDateTime start = bookingDto.getStart();
+        List<BookingDto> batch = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            batch.add(BookingDto.builder().itemId(itemId).start(start.plusDays(i)).end(start.plusDays(i).plusHours(1)).build());
+        }
+        bookingService.createBookings(batch, bookerId);
+        clearPersistenceContextAndStatistics();
+        List<Long> exported = new ArrayList<>();
+        List<Integer> managedEntities = new ArrayList<>();
+
+        bookingService.exportBookingsForOwnerItemsWithState(ownerId, "ALL").forEach(booking -> {
+            exported.add(booking.getId());
+            managedEntities.add(entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        });
+
+        assertThat(exported).hasSize(501);
+        assertThat(bookingService.findAllBookingsForOwnerItemsWithState(ownerId, "ALL", 0, 1))
+                .extracting(BookingDto::getId)
+                .containsExactly(exported.get(0));
+        assertThat(managedEntities.get(managedEntities.size() - 1)).isLessThan(10);
+    }
+
+    @Test
+    @Transactional
+    public void exportBookingsByOwnerIdAndState_notExistingUser_exceptionThrown() {
+        assertThatThrownBy(() -> bookingService.exportBookingsByOwnerIdAndState(100L, "ALL"))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    @Transactional
+    public void findBookingById_loadedWithSingleStatement() {
+        bookingDto = bookingService.createBooking(bookingDto, bookerId);
+        Statistics statistics = clearPersistenceContextAndStatistics();
+
+        BookingDto found = bookingService.findBookingById(bookingDto.getId(), ownerId);
+
+        assertThat(found.getItem()).isEqualTo(bookingDto.getItem());
+        assertThat(found.getBooker()).isEqualTo(bookingDto.getBooker());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /*ETag читается одним запросом без загрузки бронирования и меняется при смене статуса.*/
+    @Test
+    @Transactional
+    public void findBookingETag_singleStatementAndChangedOnApproval() {
+        bookingDto = bookingService.createBooking(bookingDto, bookerId);
+        Statistics statistics = clearPersistenceContextAndStatistics();
+
+        String eTag = bookingService.findBookingETag(bookingDto.getId(), bookerId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(bookingService.findBookingETag(bookingDto.getId(), ownerId)).isEqualTo(eTag);
+
+        bookingService.updateBooking(bookingDto.getId(), true, ownerId);
+
+        assertThat(bookingService.findBookingETag(bookingDto.getId(), bookerId)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    @Transactional
+    public void findBookingETag_notBookerOrOwner_exceptionThrown() {
+        bookingDto = bookingService.createBooking(bookingDto, bookerId);
+        long anotherUserId = userService.createUser(new User(null, "another", "another@email.ru")).getId();
+
+        assertThatThrownBy(() -> bookingService.findBookingETag(bookingDto.getId(), anotherUserId))
+                .isInstanceOf(IllegalAccessToEntityException.class);
+    }
+
+    /*Пересекающееся с подтверждённым бронирование нельзя ни создать, ни подтвердить.*/
+    @Test
+    @Transactional
+    public void createAndApproveBooking_overlapsApprovedBooking_exceptionThrown() {
+        long waitingId = bookingService.createBooking(bookingDto, bookerId).getId();
+        long approvedId = bookingService.createBooking(bookingDto, bookerId).getId();
+        bookingService.updateBooking(approvedId, true, ownerId);
+
+        assertThatThrownBy(() -> bookingService.updateBooking(waitingId, true, ownerId))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThatThrownBy(() -> bookingService.createBooking(bookingDto, bookerId))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThat(bookingService.updateBooking(waitingId, false, ownerId))
+                .hasFieldOrPropertyWithValue("status", BookingStatus.REJECTED);
+    }
+
+    /*Пакет бронирований вставляется пакетными INSERT, ошибочные записи возвращаются со своей ошибкой.*/
+    @Test
+    @Transactional
+    public void createBookings_batch_insertedWithBatchedStatementsAndPerEntryResults() {
+        List<BookingDto> batch = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            batch.add(BookingDto.builder()
+                    .itemId(itemId)
+                    .start(bookingDto.getStart().plusHours(i))
+                    .end(bookingDto.getEnd().plusHours(i))
+                    .build());
+        }
+        batch.add(5, BookingDto.builder().itemId(Long.MAX_VALUE).start(bookingDto.getStart()).end(bookingDto.getEnd()).build());
+        Statistics statistics = clearPersistenceContextAndStatistics();
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(batch, bookerId);
+        entityManager.flush();
+
+        assertThat(results).hasSize(121);
+        assertThat(results.get(5))
+                .hasFieldOrPropertyWithValue("index", 5)
+                .hasFieldOrPropertyWithValue("booking", null)
+                .hasFieldOrPropertyWithValue("error", "Item not found.");
+        assertThat(results).filteredOn(result -> result.getBooking() != null)
+                .hasSize(120)
+                .allSatisfy(result -> assertThat(result.getBooking().getStatus()).isEqualTo(BookingStatus.WAITING));
+        assertThat(results.get(6).getBooking().getStart()).isEqualTo(batch.get(6).getStart());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+
+    private void createBookingsForDifferentItemsAndBookers() {
+        long anotherBookerId = userService.createUser(new User(null, "another_booker", "another_booker@email.ru")).getId();
+        long anotherItemId = itemService.createItem(
+                ItemDto.builder().name("item2_name").description("item2_desc").available(true).build(), ownerId).getId();
+        bookingDto1.setItemId(anotherItemId);
+        bookingService.createBooking(bookingDto, bookerId);
+        bookingService.createBooking(bookingDto1, bookerId);
+        bookingService.createBooking(bookingDto2, anotherBookerId);
+    }
+
+    private Statistics clearPersistenceContextAndStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    /*Из параллельных подтверждений ожидающего бронирования успешно ровно одно.*/
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateBooking_concurrentApprovalsOfWaiting_approvedExactlyOnce() throws Exception {
+        try {
+            long bookingId = bookingService.createBooking(bookingDto, bookerId).getId();
+
+            assertThat(approveConcurrently(bookingId, 16)).hasSize(1);
+            assertThat(bookingService.findBookingById(bookingId, ownerId).getStatus()).isEqualTo(BookingStatus.APPROVED);
+        } finally {
+            userService.deleteUserById(bookerId);
+            userService.deleteUserById(ownerId);
+        }
+    }
+
+    /*Из параллельных подтверждений отклонённого бронирования успешно ровно одно (проверка версии).*/
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void updateBooking_concurrentApprovalsOfRejected_approvedExactlyOnce() throws Exception {
+        try {
+            long bookingId = bookingService.createBooking(bookingDto, bookerId).getId();
+            bookingService.updateBooking(bookingId, false, ownerId);
+
+            assertThat(approveConcurrently(bookingId, 16)).hasSize(1);
+            assertThat(bookingService.findBookingById(bookingId, ownerId).getStatus()).isEqualTo(BookingStatus.APPROVED);
+        } finally {
+            userService.deleteUserById(bookerId);
+            userService.deleteUserById(ownerId);
+        }
+    }
+
+    private List<BookingDto> approveConcurrently(long bookingId, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<BookingDto>> approvals = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                approvals.add(executor.submit(() -> {
+                    start.await();
+                    return bookingService.updateBooking(bookingId, true, ownerId);
+                }));
+            }
+            start.countDown();
+            List<BookingDto> approved = new ArrayList<>();
+            for (Future<BookingDto> approval : approvals) {
+                try {
+                    approved.add(approval.get());
+                } catch (ExecutionException exc) {
+                    assertThat(exc.getCause()).isInstanceOfAny(BookingStatusAlreadyApprovedException.class, BookingStatusChangedException.class);
+                }
+            }
+            return approved;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.integration;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ContainsItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.item.search.mode=contains"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Transactional
+public class ContainsItemSearchEngineTest {
+    private final ContainsItemSearchEngine searchEngine;
+    private final ItemServiceImpl itemService;
+    private final UserServiceImpl userService;
+    private List<Long> itemIds;
+
+    @BeforeEach
+    public void createEntities() {
+        long ownerId = userService.createUser(new User(null, "owner", "owner@email.ru")).getId();
+        itemIds = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ItemDto itemDto = ItemDto.builder().name("item" + i).description("Drill " + i).available(true).build();
+            itemIds.add(itemService.createItem(itemDto, ownerId).getId());
+        }
+        itemService.createItem(ItemDto.builder().name("hammer").description("100% hammer").available(true).build(), ownerId);
+    }
+
+    /*from - точное смещение, а не номер страницы, округлённый до size*/
+    @Test
+    public void searchAvailable_fromNotMultipleOfSize_exactOffset() {
+        assertThat(searchEngine.searchAvailable("drill", 1, 3))
+                .extracting(Item::getId)
+                .containsExactly(itemIds.get(1), itemIds.get(2), itemIds.get(3));
+        assertThat(searchEngine.searchAvailable("DRILL", 4, 3))
+                .extracting(Item::getId)
+                .containsExactly(itemIds.get(4));
+    }
+
+    @Test
+    public void searchAvailable_likeWildcardInText_searchedLiterally() {
+        assertThat(searchEngine.searchAvailable("0%", 0, 10)).extracting(Item::getName).containsExactly("hammer");
+        assertThat(searchEngine.searchAvailable("_", 0, 10)).isEmpty();
+    }
+}
@@ -10,6 +10,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
@@ -18,6 +19,8 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -75,7 +78,7 @@ public class ItemServiceImplTest {
 
     @Test
     public void createItem_UserNotFound_exceptionThrown() {
-        assertThatThrownBy(() -> itemService.createItem(itemDto, 100L)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> itemService.createItem(itemDto, Long.MAX_VALUE)).isInstanceOf(EntityNotFoundException.class);
     }
 
     @Test
@@ -125,21 +128,156 @@ public class ItemServiceImplTest {
                 .hasFieldOrPropertyWithValue("bookerId", bookerId);
     }
 
+    @Test
+    public void findItemById_afterBookingApproval_refreshed() {
+        long itemId = itemService.createItem(itemDto, ownerId).getId();
+        nextBookingDto.setItemId(itemId);
+        long nextBookingId = bookingService.createBooking(nextBookingDto, bookerId).getId();
+
+        assertThat(((ItemWithBookingsDto) itemService.findItemById(itemId, ownerId)).getNextBooking()).isNull();
+
+        bookingService.updateBooking(nextBookingId, true, ownerId);
+        assertThat(((ItemWithBookingsDto) itemService.findItemById(itemId, ownerId)).getNextBooking())
+                .hasFieldOrPropertyWithValue("id", nextBookingId);
+        assertThat(((ItemWithBookingsDto) itemService.findItemById(itemId, bookerId)).getNextBooking()).isNull();
+    }
+
+    /*ETag владельца учитывает ближайшие бронирования, ETag остальных пользователей от них не зависит.*/
+    @Test
+    public void findItemETag_afterBookingApproval_changedForOwnerOnly() {
+        long itemId = itemService.createItem(itemDto, ownerId).getId();
+        nextBookingDto.setItemId(itemId);
+        long nextBookingId = bookingService.createBooking(nextBookingDto, bookerId).getId();
+        String ownerETag = itemService.findItemETag(itemId, ownerId);
+        String bookerETag = itemService.findItemETag(itemId, bookerId);
+
+        bookingService.updateBooking(nextBookingId, true, ownerId);
+
+        assertThat(itemService.findItemETag(itemId, ownerId)).isNotEqualTo(ownerETag);
+        assertThat(itemService.findItemETag(itemId, bookerId)).isEqualTo(bookerETag);
+    }
+
+    /*Календарь вещи обновляется созданием и подтверждением бронирования.*/
+    @Test
+    public void findItemAvailability_afterBookingCreateAndApproval_calendarUpdated() {
+        long itemId = itemService.createItem(itemDto, ownerId).getId();
+        LocalDateTime from = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime to = from.plusHours(1);
+        ItemAvailabilityDto.Interval booked = new ItemAvailabilityDto.Interval(from.plusMinutes(10), from.plusMinutes(20));
+        assertThat(itemService.findItemAvailability(itemId, from, to).getFree())
+                .containsExactly(new ItemAvailabilityDto.Interval(from, to));
+
+        long bookingId = bookingService.createBooking(BookingDto.builder()
+                .itemId(itemId)
+                .start(booked.getStart())
+                .end(booked.getEnd())
+                .build(), bookerId).getId();
+        assertThat(itemService.findItemAvailability(itemId, from, to).getPending()).containsExactly(booked);
+
+        bookingService.updateBooking(bookingId, true, ownerId);
+        ItemAvailabilityDto availability = itemService.findItemAvailability(itemId, from, to);
+        assertThat(availability.getPending()).isEmpty();
+        assertThat(availability.getBusy()).containsExactly(booked);
+        assertThat(availability.getFree()).containsExactly(
+                new ItemAvailabilityDto.Interval(from, booked.getStart()),
+                new ItemAvailabilityDto.Interval(booked.getEnd(), to));
+    }
+
     @Test
     public void findOwnerItems_succeed() {
         long item1Id = itemService.createItem(item1Dto, ownerId).getId();
         long item2Id = itemService.createItem(item2Dto, ownerId).getId();
         long item3Id = itemService.createItem(item3Dto, userId).getId();
 
-        assertThat(itemService.findOwnerItems(ownerId))
+        assertThat(itemService.findOwnerItems(ownerId, 0, 10))
                 .hasSize(2)
                 .element(0)
                 .hasFieldOrPropertyWithValue("id", item1Id);
-        assertThat(itemService.findOwnerItems(ownerId))
+        assertThat(itemService.findOwnerItems(ownerId, 0, 10))
                 .element(1)
                 .hasFieldOrPropertyWithValue("id", item2Id);
     }
 
+    @Test
+    public void findOwnerItems_keysetPages_succeed() {
+        long item1Id = itemService.createItem(item1Dto, ownerId).getId();
+        long item2Id = itemService.createItem(item2Dto, ownerId).getId();
+        long item3Id = itemService.createItem(item3Dto, ownerId).getId();
+
+        assertThat(itemService.findOwnerItems(ownerId, 0, 2))
+                .extracting(ItemDto::getId)
+                .containsExactly(item1Id, item2Id);
+        assertThat(itemService.findOwnerItems(ownerId, item2Id, 2))
+                .extracting(ItemDto::getId)
+                .containsExactly(item3Id);
+        assertThat(itemService.findOwnerItems(ownerId, item3Id, 2)).isEmpty();
+    }
+
+    @Test
+    public void findOwnerItems_withBookingsAndComments_succeed() {
+        long item1Id = itemService.createItem(item1Dto, ownerId).getId();
+        long item2Id = itemService.createItem(item2Dto, ownerId).getId();
+
+        lastBookingDto.setItemId(item1Id);
+        nextBookingDto.setItemId(item1Id);
+        long lastBookingId = bookingService.createBooking(lastBookingDto, bookerId).getId();
+        long nextBookingId = bookingService.createBooking(nextBookingDto, bookerId).getId();
+        bookingService.updateBooking(lastBookingId, true, ownerId);
+        bookingService.updateBooking(nextBookingId, true, ownerId);
+        itemService.createComment(CommentDto.builder().text("comment_text").build(), item1Id, bookerId);
+
+        List<ItemDto> result = itemService.findOwnerItems(ownerId, 0, 10);
+        assertThat(result).hasSize(2);
+        ItemWithBookingsDto item1 = (ItemWithBookingsDto) result.get(0);
+        ItemWithBookingsDto item2 = (ItemWithBookingsDto) result.get(1);
+        assertThat(item1.getLastBooking()).hasFieldOrPropertyWithValue("id", lastBookingId);
+        assertThat(item1.getNextBooking()).hasFieldOrPropertyWithValue("id", nextBookingId);
+        assertThat(item1.getComments()).isEmpty();
+        assertThat(item1.getCommentCount()).isEqualTo(1);
+        assertThat(item1.getLastCommentAt()).isNotNull();
+        assertThat(item1.getBookingCount()).isEqualTo(2);
+        assertThat(item2.getId()).isEqualTo(item2Id);
+        assertThat(item2.getLastBooking()).isNull();
+        assertThat(item2.getNextBooking()).isNull();
+        assertThat(item2.getComments()).isEmpty();
+        assertThat(item2.getCommentCount()).isZero();
+        assertThat(item2.getBookingCount()).isZero();
+    }
+
+    /*Для каждой вещи выбирается последнее завершённое и ближайшее будущее подтверждённое бронирование,
+     * неподтверждённые бронирования не учитываются.*/
+    @Test
+    public void findOwnerItems_severalBookingsPerItem_closestSelected() {
+        long item1Id = itemService.createItem(item1Dto, ownerId).getId();
+        long item2Id = itemService.createItem(item2Dto, ownerId).getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        long item1LastId = createApprovedBooking(item1Id, now.minusMinutes(30), now.minusMinutes(20));
+        createApprovedBooking(item1Id, now.minusMinutes(50), now.minusMinutes(40));
+        long item1NextId = createApprovedBooking(item1Id, now.plusMinutes(10), now.plusMinutes(20));
+        createApprovedBooking(item1Id, now.plusMinutes(30), now.plusMinutes(40));
+        bookingService.createBooking(BookingDto.builder().itemId(item1Id).start(now.plusMinutes(1)).end(now.plusMinutes(2)).build(), bookerId);
+        long item2LastId = createApprovedBooking(item2Id, now.minusMinutes(10), now.minusMinutes(5));
+
+        List<ItemDto> result = itemService.findOwnerItems(ownerId, 0, 10);
+
+        ItemWithBookingsDto item1 = (ItemWithBookingsDto) result.get(0);
+        ItemWithBookingsDto item2 = (ItemWithBookingsDto) result.get(1);
+        assertThat(item1.getLastBooking()).hasFieldOrPropertyWithValue("id", item1LastId);
+        assertThat(item1.getNextBooking()).hasFieldOrPropertyWithValue("id", item1NextId);
+        assertThat(item2.getLastBooking())
+                .hasFieldOrPropertyWithValue("id", item2LastId)
+                .hasFieldOrPropertyWithValue("bookerId", bookerId);
+        assertThat(item2.getNextBooking()).isNull();
+    }
+
+    private long createApprovedBooking(long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto dto = BookingDto.builder().itemId(itemId).start(start).end(end).build();
+        long bookingId = bookingService.createBooking(dto, bookerId).getId();
+        bookingService.updateBooking(bookingId, true, ownerId);
+        return bookingId;
+    }
+
     @Test
     public void searchAvailableItems_succeed() throws IllegalAccessException {
         long ownerId = userService.createUser(owner).getId();
@@ -150,11 +288,11 @@ public class ItemServiceImplTest {
         long item3Id = itemService.createItem(item3Dto, ownerId).getId();
 
 
-        assertThat(itemService.searchAvailableItems("item")).hasSize(2);
+        assertThat(itemService.searchAvailableItems("item", 0, 10)).hasSize(2);
 
         item2Dto = ItemDto.builder().name("item2_name").description("item2_desc").available(false).build();
         itemService.updateItem(item2Dto, ownerId, item2Id);
-        assertThat(itemService.searchAvailableItems("item"))
+        assertThat(itemService.searchAvailableItems("item", 0, 10))
                 .hasSize(1)
                 .element(0)
                 .hasFieldOrPropertyWithValue("id", item1Id)
@@ -162,6 +300,34 @@ public class ItemServiceImplTest {
                 .hasFieldOrPropertyWithValue("description", item1Dto.getDescription());
     }
 
+    /*Детали вещи содержат первую страницу отзывов, остальные читаются по nextCommentsAfterId.
+     * Счётчики item_stats растут с каждым отзывом.*/
+    @Test
+    public void findItemById_manyComments_pagedByCursor() {
+        long itemId = itemService.createItem(itemDto, ownerId).getId();
+        createApprovedBooking(itemId, LocalDateTime.now().minusSeconds(20), LocalDateTime.now().minusSeconds(10));
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (int i = 0; i < 12; i++) {
+            itemService.createComment(CommentDto.builder().text("comment" + i).created(created.plusSeconds(i)).build(), itemId, bookerId);
+        }
+
+        ItemWithBookingsDto item = (ItemWithBookingsDto) itemService.findItemById(itemId, ownerId);
+        assertThat(item.getComments()).hasSize(10).element(0).hasFieldOrPropertyWithValue("text", "comment0");
+        assertThat(item.getNextCommentsAfterId()).isEqualTo(item.getComments().get(9).getId());
+        assertThat(item.getCommentCount()).isEqualTo(12);
+        assertThat(item.getLastCommentAt()).isEqualTo(created.plusSeconds(11));
+        assertThat(item.getBookingCount()).isEqualTo(1);
+
+        List<CommentDto> nextPage = itemService.findItemComments(itemId, item.getNextCommentsAfterId(), 10);
+        assertThat(nextPage).extracting(CommentDto::getText).containsExactly("comment10", "comment11");
+        assertThat(itemService.findItemComments(itemId, nextPage.get(1).getId(), 10)).isEmpty();
+    }
+
+    @Test
+    public void findItemComments_notExistingItem_exceptionThrown() {
+        assertThatThrownBy(() -> itemService.findItemComments(Long.MAX_VALUE, 0, 10)).isInstanceOf(EntityNotFoundException.class);
+    }
+
     @Test
     public void createComment_succeed() {
         long itemId = itemService.createItem(itemDto, ownerId).getId();
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.integration;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//планы запросов PostgreSQL до и после индексов - server/benchmark/hot-query-plans.sql
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MigrationTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void migrate_hotQueryIndexesCreated() {
+        List<String> indexes = jdbcTemplate.queryForList("SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES", String.class);
+
+        assertThat(indexes).contains(
+                "items_owner_id_id_idx",
+                "items_item_request_id_idx",
+                "bookings_item_id_status_start_idx",
+                "bookings_item_id_start_idx",
+                "bookings_item_id_start_finish_idx",
+                "bookings_item_id_booker_id_finish_idx",
+                "bookings_booker_id_start_idx",
+                "comments_item_id_id_idx",
+                "requests_requestor_id_created_idx",
+                "requests_created_idx");
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.dto.RequestDesc;
@@ -14,7 +15,10 @@ import ru.practicum.shareit.request.service.RequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest(
         properties = "db.name=test",
@@ -104,4 +108,64 @@ public class RequestServiceImplTest {
         assertThat(ansDto.getItems())
                 .element(1).hasFieldOrPropertyWithValue("id", item2Id);
     }
+
+    @Test
+    @Transactional
+    public void findAllOwnersRequests_itemsGroupedByRequest_succeed() {
+        long request1Id = requestService.createRequest(dto1, requestorId).getId();
+        long request2Id = requestService.createRequest(dto2, requestorId).getId();
+        requestService.createRequest(dto3, requestorId);
+
+        item1Dto.setRequestId(request1Id);
+        item2Dto.setRequestId(request2Id);
+        item1Id = itemService.createItem(item1Dto, ownerId).getId();
+        item2Id = itemService.createItem(item2Dto, ownerId).getId();
+
+        List<RequestWithItems> requests = requestService.findAllOwnersRequests(requestorId);
+
+        assertThat(requests).hasSize(3);
+        assertThat(requests)
+                .filteredOn(request -> request.getId().equals(request1Id))
+                .singleElement()
+                .extracting(RequestWithItems::getItems)
+                .asList()
+                .singleElement()
+                .hasFieldOrPropertyWithValue("id", item1Id)
+                .hasFieldOrPropertyWithValue("ownerId", ownerId)
+                .hasFieldOrPropertyWithValue("requestId", request1Id);
+        assertThat(requests)
+                .filteredOn(request -> request.getId().equals(request2Id))
+                .singleElement()
+                .extracting(RequestWithItems::getItems)
+                .asList()
+                .singleElement()
+                .hasFieldOrPropertyWithValue("id", item2Id);
+        assertThat(requests)
+                .filteredOn(request -> request.getItems().isEmpty())
+                .hasSize(1);
+    }
+
+    /*ETag запроса и списка запросов владельца меняется, когда на запрос предлагают вещь.*/
+    @Test
+    @Transactional
+    public void findRequestETag_itemOffered_changed() {
+        long requestId = requestService.createRequest(dto1, requestorId).getId();
+        String requestETag = requestService.findRequestETag(requestorId, requestId);
+        String ownersRequestsETag = requestService.findOwnersRequestsETag(requestorId);
+
+        item1Dto.setRequestId(requestId);
+        itemService.createItem(item1Dto, ownerId);
+
+        assertThat(requestService.findRequestETag(requestorId, requestId)).isNotEqualTo(requestETag);
+        assertThat(requestService.findOwnersRequestsETag(requestorId)).isNotEqualTo(ownersRequestsETag);
+        assertThat(requestService.findRequestETag(anotherUserId, requestId))
+                .isEqualTo(requestService.findRequestETag(requestorId, requestId));
+    }
+
+    @Test
+    @Transactional
+    public void findRequestETag_requestNotFound_exceptionThrown() {
+        assertThatThrownBy(() -> requestService.findRequestETag(requestorId, 100L))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
 }
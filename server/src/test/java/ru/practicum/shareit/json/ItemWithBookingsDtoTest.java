@@ -27,6 +27,9 @@ public class ItemWithBookingsDtoTest {
         dto.setLastBooking(new BookingBookerIdDto(4L, 4L));
         dto.setNextBooking(new BookingBookerIdDto(5L, 5L));
         dto.setComments(List.of(new CommentDto(1L, "comment1", "author1", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))));
+        dto.setNextCommentsAfterId(1L);
+        dto.setCommentCount(11);
+        dto.setBookingCount(6);
 
         JsonContent<ItemWithBookingsDto> jsonContent = jsonSerializer.write(dto);
 
@@ -45,5 +48,8 @@ public class ItemWithBookingsDtoTest {
         assertThat(jsonContent).extractingJsonPathNumberValue("$.comments[0].id").isEqualTo(1);
         assertThat(jsonContent).extractingJsonPathStringValue("$.comments[0].text").isEqualTo("comment1");
         assertThat(jsonContent).extractingJsonPathStringValue("$.comments[0].authorName").isEqualTo("author1");
+        assertThat(jsonContent).extractingJsonPathNumberValue("$.nextCommentsAfterId").isEqualTo(1);
+        assertThat(jsonContent).extractingJsonPathNumberValue("$.commentCount").isEqualTo(11);
+        assertThat(jsonContent).extractingJsonPathNumberValue("$.bookingCount").isEqualTo(6);
     }
 }
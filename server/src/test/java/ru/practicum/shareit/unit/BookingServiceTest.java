@@ -5,23 +5,36 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.overlap.BookingOverlapGuard;
+import ru.practicum.shareit.booking.query.BookingQueryEngine;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.exception.exceptions.BookingOverlapException;
 import ru.practicum.shareit.exception.exceptions.BookingStatusAlreadyApprovedException;
+import ru.practicum.shareit.exception.exceptions.BookingStatusChangedException;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exception.exceptions.IllegalAccessToEntityException;
+import ru.practicum.shareit.exception.exceptions.UnknownStateException;
+import ru.practicum.shareit.item.availability.ItemCalendarCache;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -36,6 +49,18 @@ public class BookingServiceTest {
     UserRepository userRepository;
     @Mock
     ItemRepository itemRepository;
+    @Mock
+    ItemDetailsCache itemDetailsCache;
+    @Mock
+    ItemCalendarCache itemCalendarCache;
+    @Mock
+    BookingOverlapGuard bookingOverlapGuard;
+    @Mock
+    BookingQueryEngine bookingQueryEngine;
+    @Mock
+    ItemStatsRecorder itemStatsRecorder;
+    @Mock
+    TransactionOperations transactionOperations;
     User user1, user2, user3;
     Item item1, item2, item3;
     Booking booking1, booking2, booking3;
@@ -51,9 +76,9 @@ public class BookingServiceTest {
 
     public void createEntities() {
         bookings = new HashMap<>();
-        booking1 = new Booking(1L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
-        booking2 = new Booking(2L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
-        booking3 = new Booking(3L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
+        booking1 = new Booking(1L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
+        booking2 = new Booking(2L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
+        booking3 = new Booking(3L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
         bookings.put(booking1.getId(), booking1);
         bookings.put(booking2.getId(), booking2);
         bookings.put(booking3.getId(), booking3);
@@ -67,9 +92,9 @@ public class BookingServiceTest {
         users.put(user3.getId(), user3);
 
         items = new HashMap<>();
-        item1 = new Item(1L, "item1_name", "item1_desc", true, null, null);
-        item2 = new Item(2L, "item2_name", "item2_desc", true, null, null);
-        item3 = new Item(3L, "item3_name", "item3_desc", true, null, null);
+        item1 = new Item(1L, "item1_name", "item1_desc", true, null, null, 0L);
+        item2 = new Item(2L, "item2_name", "item2_desc", true, null, null, 0L);
+        item3 = new Item(3L, "item3_name", "item3_desc", true, null, null, 0L);
         items.put(item1.getId(), item1);
         items.put(item2.getId(), item2);
         items.put(item3.getId(), item3);
@@ -79,6 +104,9 @@ public class BookingServiceTest {
         MockBehaviourManager.setUserRepositoryBehaviour(userRepository, users);
         MockBehaviourManager.setItemRepositoryBehaviour(itemRepository, items);
         MockBehaviourManager.setBookingRepositoryBehaviour(bookingRepository, bookings);
+        MockBehaviourManager.setBookingOverlapGuardBehaviour(bookingOverlapGuard);
+        MockBehaviourManager.setBookingQueryEngineBehaviour(bookingQueryEngine, bookings);
+        MockBehaviourManager.setTransactionOperationsBehaviour(transactionOperations);
     }
 
     @Test
@@ -111,6 +139,58 @@ public class BookingServiceTest {
         assertThatThrownBy(() -> bookingService.createBooking(dto, user1.getId())).isInstanceOf(IllegalAccessToEntityException.class);
     }
 
+    /*  List<BookingBatchResultDto> createBookings(List<BookingDto> bookingDtos, Long userId) - пакетное создание
+    Вещи читаются одним запросом, корректные записи сохраняются одним saveAll
+    Ошибка записи возвращается в её результате и не мешает остальным*/
+
+    @Test
+    public void createBookings_mixedEntries_perEntryResults() {
+        item1.setOwner(user2);
+        item2.setOwner(user1);
+        item3.setOwner(user2);
+        item3.setAvailable(false);
+        List<BookingDto> batch = List.of(
+                BookingDto.builder().itemId(item1.getId()).start(booking1.getStart()).end(booking1.getEnd()).build(),
+                BookingDto.builder().itemId(100L).start(booking1.getStart()).end(booking1.getEnd()).build(),
+                BookingDto.builder().itemId(item2.getId()).start(booking1.getStart()).end(booking1.getEnd()).build(),
+                BookingDto.builder().itemId(item3.getId()).start(booking1.getStart()).end(booking1.getEnd()).build());
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(batch, user1.getId());
+
+        assertThat(results).extracting(BookingBatchResultDto::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results.get(0).getBooking())
+                .hasFieldOrPropertyWithValue("status", BookingStatus.WAITING)
+                .hasFieldOrPropertyWithValue("item", new BookingDto.Item(item1.getId(), item1.getName()));
+        assertThat(results.get(1).getError()).isEqualTo("Item not found.");
+        assertThat(results.get(2).getError()).isEqualTo("Fail to grant access to book item by owner.");
+        assertThat(results.get(3).getError()).isEqualTo("Item is not available.");
+        Mockito.verify(itemRepository, Mockito.times(1)).findAllById(Mockito.any());
+        Mockito.verify(bookingRepository, Mockito.times(1)).saveAll(Mockito.any());
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    /*Пересечения проверяются по интервалам, прочитанным один раз для всего пакета*/
+    @Test
+    public void createBookings_overlappingEntry_checkedAgainstPreparedRanges() {
+        item1.setOwner(user2);
+        item2.setOwner(user2);
+        Mockito.when(bookingOverlapGuard.prepare(Set.of(item1.getId(), item2.getId()), booking1.getStart()))
+                .thenReturn((itemId, start, end) -> {
+                    if (itemId.equals(item2.getId())) {
+                        throw new BookingOverlapException("Item is already booked for this time.", itemId);
+                    }
+                });
+        List<BookingDto> batch = List.of(
+                BookingDto.builder().itemId(item1.getId()).start(booking1.getStart()).end(booking1.getEnd()).build(),
+                BookingDto.builder().itemId(item2.getId()).start(booking1.getStart().plusHours(1)).end(booking1.getEnd()).build());
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(batch, user1.getId());
+
+        assertThat(results.get(0).getBooking()).isNotNull();
+        assertThat(results.get(1).getError()).isEqualTo("Item is already booked for this time.");
+        Mockito.verify(bookingOverlapGuard, Mockito.never()).assertFree(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+
     /*  BookingDto updateBooking(Long bookingId, boolean approved, Long ownerId) - обновление бронирования
     Может быть выполнено по существующему бронированию
     Может быть выполнено только владельцем бронируемой вещи
@@ -125,6 +205,7 @@ public class BookingServiceTest {
         booking.setStatus(BookingStatus.APPROVED);
 
         assertThat(bookingService.updateBooking(booking1.getId(), true, user1.getId())).isEqualTo(BookingMapper.toDto(booking));
+        Mockito.verify(itemStatsRecorder).bookingApproved(item1.getId());
     }
 
     @Test
@@ -136,6 +217,7 @@ public class BookingServiceTest {
         booking.setStatus(BookingStatus.REJECTED);
 
         assertThat(bookingService.updateBooking(booking1.getId(), false, user1.getId())).isEqualTo(BookingMapper.toDto(booking));
+        Mockito.verify(itemStatsRecorder, Mockito.never()).bookingApproved(Mockito.anyLong());
     }
 
 
@@ -170,6 +252,16 @@ public class BookingServiceTest {
         assertThatThrownBy(() -> bookingService.updateBooking(booking1.getId(), true, user1.getId())).isInstanceOf(BookingStatusAlreadyApprovedException.class);
     }
 
+    @Test
+    public void updateBooking_changedConcurrently_ExceptionThrown_Test() {
+        booking1.setItem(item1);
+        booking1.setBooker(user1);
+        item1.setOwner(user1);
+        Mockito.doReturn(0).when(bookingRepository).updateWaitingBookingStatus(booking1.getId(), user1.getId(), BookingStatus.APPROVED);
+
+        assertThatThrownBy(() -> bookingService.updateBooking(booking1.getId(), true, user1.getId())).isInstanceOf(BookingStatusChangedException.class);
+    }
+
     /*  BookingDto findBookingById(Long bookingId, Long userId) - просмотр бронирования по id
     Может быть выполнено по существующему бронированию
     Может быть выполнено автором бронирования
@@ -336,6 +428,35 @@ public class BookingServiceTest {
                 .isInstanceOf(EntityNotFoundException.class);
     }
 
+    /*Несколько состояний через запятую объединяются, неизвестное состояние в списке - ошибка*/
+
+    @Test
+    public void findAllBookingsForOwnerItemsWithStateTest_waitingAndPast_succeed() {
+        booking1.setStart(LocalDateTime.now().minusSeconds(20));
+        booking1.setEnd(LocalDateTime.now().minusSeconds(10));
+        booking1.setStatus(BookingStatus.APPROVED);
+        booking1.setBooker(user1);
+        booking1.setItem(item1);
+        item1.setOwner(user3);
+        booking2.setStatus(BookingStatus.REJECTED);
+        booking2.setBooker(user1);
+        booking2.setItem(item2);
+        item2.setOwner(user3);
+        booking3.setBooker(user1);
+        booking3.setItem(item3);
+        item3.setOwner(user3);
+
+        assertThat(bookingService.findAllBookingsForOwnerItemsWithState(user3.getId(), "WAITING,PAST", 0, 20))
+                .containsExactly(BookingMapper.toDto(booking1), BookingMapper.toDto(booking3));
+    }
+
+    @Test
+    public void findAllBookingsForOwnerItemsWithStateTest_unknownStateInList_exceptionThrown() {
+        assertThatThrownBy(() -> bookingService.findAllBookingsForOwnerItemsWithState(user3.getId(), "WAITING,UNSUPPORTED_STATUS", 0, 20))
+                .isInstanceOf(UnknownStateException.class)
+                .hasMessage("Unknown state: WAITING,UNSUPPORTED_STATUS");
+    }
+
     private Booking copyOf(Booking booking) {
         return Booking.builder()
                 .id(booking.getId())
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.overlap.InMemoryBookingOverlapGuard;
+import ru.practicum.shareit.booking.overlap.OverlapCheck;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.exceptions.BookingOverlapException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryBookingOverlapGuardTest {
+    @InjectMocks
+    InMemoryBookingOverlapGuard overlapGuard;
+    @Mock
+    BookingRepository bookingRepository;
+
+    LocalDateTime base;
+    Booking approved;
+
+    @BeforeEach
+    public void prepareTestEnvironment() {
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+        approved = new Booking(1L, null, null, base.plusHours(10), base.plusHours(20), BookingStatus.APPROVED, 0L);
+        Mockito.lenient().when(bookingRepository.findAllByItemIdAndStatusAndEndAfter(Mockito.eq(1L), Mockito.eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(approved));
+    }
+
+    /*Подтверждённые бронирования загружаются из БД при первом обращении к вещи.*/
+    @Test
+    public void assertFree_overlapsApprovedBooking_exceptionThrown() {
+        assertThatThrownBy(() -> overlapGuard.assertFree(1L, base.plusHours(5), base.plusHours(11)))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThatThrownBy(() -> overlapGuard.assertFree(1L, base.plusHours(19), base.plusHours(25)))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThatThrownBy(() -> overlapGuard.assertFree(1L, base.plusHours(12), base.plusHours(13)))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThatThrownBy(() -> overlapGuard.assertFree(1L, base, base.plusHours(30)))
+                .isInstanceOf(BookingOverlapException.class);
+    }
+
+    /*Интервалы полуоткрытые: бронирования, которые только соприкасаются, не пересекаются.*/
+    @Test
+    public void assertFree_touchingRanges_succeed() {
+        overlapGuard.assertFree(1L, base, base.plusHours(10));
+        overlapGuard.assertFree(1L, base.plusHours(20), base.plusHours(30));
+        overlapGuard.assertFree(2L, base.plusHours(10), base.plusHours(20));
+    }
+
+    /*Для пакета интервалы ещё не читавшихся вещей загружаются одним запросом*/
+    @Test
+    public void prepare_notLoadedItems_loadedWithOneQuery() {
+        Item item = new Item(3L, "item", "desc", true, null, null, 0L);
+        Booking approvedOfItem3 = new Booking(5L, item, null, base.plusHours(10), base.plusHours(20), BookingStatus.APPROVED, 0L);
+        Mockito.when(bookingRepository.findAllByItemIdInAndStatusAndEndAfter(Mockito.eq(Set.of(3L, 4L)), Mockito.eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(approvedOfItem3));
+
+        OverlapCheck overlapCheck = overlapGuard.prepare(List.of(3L, 4L), base);
+
+        assertThatThrownBy(() -> overlapCheck.assertFree(3L, base.plusHours(15), base.plusHours(25)))
+                .isInstanceOf(BookingOverlapException.class);
+        overlapCheck.assertFree(3L, base.plusHours(20), base.plusHours(25));
+        overlapCheck.assertFree(4L, base.plusHours(15), base.plusHours(25));
+        overlapGuard.prepare(List.of(3L, 4L), base);
+        Mockito.verify(bookingRepository).findAllByItemIdInAndStatusAndEndAfter(any(), any(), any());
+        Mockito.verify(bookingRepository, Mockito.never()).findAllByItemIdAndStatusAndEndAfter(Mockito.anyLong(), any(), any());
+    }
+
+    @Test
+    public void reserve_afterApproval_rangeOccupied() {
+        assertThat(overlapGuard.reserve(1L, 10L, base.plusHours(30), base.plusHours(40), () -> "approved")).isEqualTo("approved");
+
+        assertThatThrownBy(() -> overlapGuard.reserve(1L, 11L, base.plusHours(35), base.plusHours(36), () -> "approved"))
+                .isInstanceOf(BookingOverlapException.class);
+    }
+
+    /*Собственный интервал бронирования не считается пересечением при повторном подтверждении.*/
+    @Test
+    public void reserve_sameBookingAgain_noOverlapWithItself() {
+        overlapGuard.reserve(1L, 10L, base.plusHours(30), base.plusHours(40), () -> "approved");
+
+        assertThat(overlapGuard.reserve(1L, 10L, base.plusHours(30), base.plusHours(40), () -> "approved again")).isEqualTo("approved again");
+    }
+
+    /*Если подтверждение не удалось, интервал остаётся свободным.*/
+    @Test
+    public void reserve_failedApproval_rangeStaysFree() {
+        assertThatThrownBy(() -> overlapGuard.reserve(1L, 10L, base.plusHours(30), base.plusHours(40), () -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        overlapGuard.assertFree(1L, base.plusHours(30), base.plusHours(40));
+    }
+
+    /*Из одновременных подтверждений пересекающихся бронирований проходит ровно одно.*/
+    @Test
+    public void reserve_concurrentOverlappingApprovals_exactlyOneSucceeds() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger approvals = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            LocalDateTime from = base.plusHours(30 + i);
+            long bookingId = 10L + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return overlapGuard.reserve(1L, bookingId, from, from.plusHours(threads), approvals::incrementAndGet);
+            }));
+        }
+        start.countDown();
+
+        int rejected = 0;
+        for (Future<?> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BookingOverlapException.class);
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(approvals.get()).isEqualTo(1);
+        assertThat(rejected).isEqualTo(threads - 1);
+    }
+}
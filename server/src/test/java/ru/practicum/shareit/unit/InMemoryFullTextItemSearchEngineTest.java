@@ -0,0 +1,103 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryFullTextItemSearchEngine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryFullTextItemSearchEngineTest {
+    @InjectMocks
+    InMemoryFullTextItemSearchEngine searchEngine;
+    @Mock
+    ItemRepository itemRepository;
+
+    Item drill, screwdriver, hammer;
+    Map<Long, Item> items;
+
+    @BeforeEach
+    public void prepareTestEnvironment() {
+        drill = new Item(1L, "Дрель", "Аккумуляторная дрель Makita", true, null, null, 0L);
+        screwdriver = new Item(2L, "Отвертка", "Крестовая отвертка, подходит к дрели", true, null, null, 0L);
+        hammer = new Item(3L, "Молоток", "Makita hammer drill", true, null, null, 0L);
+        items = new HashMap<>();
+        items.put(drill.getId(), drill);
+        items.put(screwdriver.getId(), screwdriver);
+        items.put(hammer.getId(), hammer);
+
+        Mockito.lenient().when(itemRepository.findAll()).thenReturn(List.copyOf(items.values()));
+        Mockito.lenient().when(itemRepository.findAllById(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Item> result = new ArrayList<>();
+            ids.forEach(id -> result.add(items.get(id)));
+            return result.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        });
+        searchEngine.loadIndex();
+    }
+
+    @Test
+    public void searchAvailable_nameMatchRankedFirst_succeed() {
+        assertThat(searchEngine.searchAvailable("makita", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId(), hammer.getId());
+        assertThat(searchEngine.searchAvailable("ДРЕЛЬ", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId());
+    }
+
+    @Test
+    public void searchAvailable_allTermsRequired_succeed() {
+        assertThat(searchEngine.searchAvailable("makita drill", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(hammer.getId());
+        assertThat(searchEngine.searchAvailable("makita отвертка", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void searchAvailable_paged_succeed() {
+        assertThat(searchEngine.searchAvailable("makita", 1, 1))
+                .extracting(Item::getId)
+                .containsExactly(hammer.getId());
+    }
+
+    @Test
+    public void searchAvailable_blankText_emptyList() {
+        assertThat(searchEngine.searchAvailable("   ", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void index_unavailableItem_removedFromIndex() {
+        drill.setAvailable(false);
+        searchEngine.index(drill);
+
+        assertThat(searchEngine.searchAvailable("makita", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(hammer.getId());
+    }
+
+    @Test
+    public void index_renamedItem_oldTermsRemoved() {
+        hammer.setDescription("Тяжелый молоток");
+        searchEngine.index(hammer);
+
+        assertThat(searchEngine.searchAvailable("hammer", 0, 10)).isEmpty();
+        assertThat(searchEngine.searchAvailable("тяжелый", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(hammer.getId());
+    }
+}
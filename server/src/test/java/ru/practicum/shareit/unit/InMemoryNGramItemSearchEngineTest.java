@@ -0,0 +1,107 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryNGramItemSearchEngine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryNGramItemSearchEngineTest {
+    @InjectMocks
+    InMemoryNGramItemSearchEngine searchEngine;
+    @Mock
+    ItemRepository itemRepository;
+
+    Item drill, screwdriver, hammer;
+    Map<Long, Item> items;
+
+    @BeforeEach
+    public void prepareTestEnvironment() {
+        drill = new Item(1L, "Дрель", "Аккумуляторная дрель Makita", true, null, null, 0L);
+        screwdriver = new Item(2L, "Otvertka", "Крестовая отвертка", true, null, null, 0L);
+        hammer = new Item(3L, "Молоток", "Makita hammer drill", true, null, null, 0L);
+        items = new HashMap<>();
+        items.put(drill.getId(), drill);
+        items.put(screwdriver.getId(), screwdriver);
+        items.put(hammer.getId(), hammer);
+
+        Mockito.lenient().when(itemRepository.findAll()).thenReturn(List.copyOf(items.values()));
+        Mockito.lenient().when(itemRepository.findAllById(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Item> result = new ArrayList<>();
+            ids.forEach(id -> result.add(items.get(id)));
+            return result.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        });
+        searchEngine.loadIndex();
+    }
+
+    @Test
+    public void searchAvailable_wordFragment_succeed() {
+        assertThat(searchEngine.searchAvailable("дрел", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId());
+        assertThat(searchEngine.searchAvailable("otvert", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(screwdriver.getId());
+    }
+
+    @Test
+    public void searchAvailable_ignoreCaseOrderedById_succeed() {
+        assertThat(searchEngine.searchAvailable("MAKI", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId(), hammer.getId());
+    }
+
+    @Test
+    public void searchAvailable_shortPattern_succeed() {
+        assertThat(searchEngine.searchAvailable("ma", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId(), hammer.getId());
+    }
+
+    @Test
+    public void searchAvailable_gramsFromDifferentPlaces_noMatch() {
+        assertThat(searchEngine.searchAvailable("makdri", 0, 10)).isEmpty();
+    }
+
+    @Test
+    public void searchAvailable_paged_succeed() {
+        assertThat(searchEngine.searchAvailable("makita", 1, 1))
+                .extracting(Item::getId)
+                .containsExactly(hammer.getId());
+    }
+
+    @Test
+    public void searchAvailable_staleIndexEntry_skipped() {
+        items.remove(drill.getId());
+
+        assertThat(searchEngine.searchAvailable("makita", 0, 1))
+                .extracting(Item::getId)
+                .containsExactly(hammer.getId());
+    }
+
+    @Test
+    public void index_unavailableItem_removedFromIndex() {
+        hammer.setAvailable(false);
+        searchEngine.index(hammer);
+
+        assertThat(searchEngine.searchAvailable("makita", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(drill.getId());
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.availability.BookingSlot;
+import ru.practicum.shareit.item.availability.ItemAvailability;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto.Interval;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ItemAvailabilityTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    /*Соприкасающиеся подтверждённые бронирования объединяются, свободные интервалы - промежутки между ними.*/
+    @Test
+    public void of_touchingApprovedBookings_mergedIntoOneBusyInterval() {
+        ItemAvailabilityDto availability = ItemAvailability.of(1L, base, base.plusHours(10), List.of(
+                slot(1L, 2, 4, BookingStatus.APPROVED),
+                slot(2L, 4, 6, BookingStatus.APPROVED),
+                slot(3L, 8, 9, BookingStatus.APPROVED)));
+
+        assertThat(availability.getBusy()).containsExactly(interval(2, 6), interval(8, 9));
+        assertThat(availability.getFree()).containsExactly(interval(0, 2), interval(6, 8), interval(9, 10));
+        assertThat(availability.getPending()).isEmpty();
+    }
+
+    /*Бронирования обрезаются границами запрошенного диапазона.*/
+    @Test
+    public void of_bookingsCrossingRangeBounds_clipped() {
+        ItemAvailabilityDto availability = ItemAvailability.of(1L, base.plusHours(2), base.plusHours(8), List.of(
+                slot(1L, 0, 3, BookingStatus.APPROVED),
+                slot(2L, 7, 12, BookingStatus.APPROVED)));
+
+        assertThat(availability.getBusy()).containsExactly(interval(2, 3), interval(7, 8));
+        assertThat(availability.getFree()).containsExactly(interval(3, 7));
+    }
+
+    /*Ожидающие бронирования не занимают вещь, пересекающиеся ожидающие объединяются.*/
+    @Test
+    public void of_waitingBookings_pendingOnly() {
+        ItemAvailabilityDto availability = ItemAvailability.of(1L, base, base.plusHours(10), List.of(
+                slot(1L, 1, 5, BookingStatus.WAITING),
+                slot(2L, 2, 3, BookingStatus.WAITING),
+                slot(3L, 4, 7, BookingStatus.WAITING)));
+
+        assertThat(availability.getPending()).containsExactly(interval(1, 7));
+        assertThat(availability.getBusy()).isEmpty();
+        assertThat(availability.getFree()).containsExactly(interval(0, 10));
+    }
+
+    private BookingSlot slot(Long bookingId, int startHour, int endHour, BookingStatus status) {
+        return new BookingSlot(bookingId, base.plusHours(startHour), base.plusHours(endHour), status);
+    }
+
+    private Interval interval(int startHour, int endHour) {
+        return new Interval(base.plusHours(startHour), base.plusHours(endHour));
+    }
+}
@@ -1,34 +1,50 @@
 package ru.practicum.shareit.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exception.exceptions.IllegalAccessToEntityException;
+import ru.practicum.shareit.exception.exceptions.ItemChangedException;
 import ru.practicum.shareit.exception.exceptions.ItemIdNotConsistentException;
 import ru.practicum.shareit.exception.exceptions.NoResolvedBookingException;
+import ru.practicum.shareit.item.availability.ItemCalendarCache;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentWriter;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStats;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemStatsRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -51,7 +67,19 @@ public class ItemServiceTest {
     @Mock
     CommentRepository commentRepository;
     @Mock
+    CommentWriter commentWriter;
+    @Mock
     RequestRepository requestRepository;
+    @Mock
+    ItemSearchEngine itemSearchEngine;
+    @Mock
+    ItemStatsRepository itemStatsRepository;
+    @Mock
+    ItemStatsRecorder itemStatsRecorder;
+    @Spy
+    ItemDetailsCache itemDetailsCache = new ItemDetailsCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    @Spy
+    ItemCalendarCache itemCalendarCache = new ItemCalendarCache(true, 100, Duration.ofHours(1), new SimpleMeterRegistry());
 
     User user1, user2, user3;
     Item item1, item2, item3;
@@ -71,9 +99,9 @@ public class ItemServiceTest {
 
     public void createEntities() {
         bookings = new HashMap<>();
-        booking1 = new Booking(1L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
-        booking2 = new Booking(2L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
-        booking3 = new Booking(3L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
+        booking1 = new Booking(1L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
+        booking2 = new Booking(2L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
+        booking3 = new Booking(3L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
         bookings.put(booking1.getId(), booking1);
         bookings.put(booking2.getId(), booking2);
         bookings.put(booking3.getId(), booking3);
@@ -87,17 +115,17 @@ public class ItemServiceTest {
         users.put(user3.getId(), user3);
 
         items = new HashMap<>();
-        item1 = new Item(1L, "item1_name", "item1_desc", true, null, null);
-        item2 = new Item(2L, "item2_name", "item2_desc", true, null, null);
-        item3 = new Item(3L, "item3_name", "item3_desc", true, null, null);
+        item1 = new Item(1L, "item1_name", "item1_desc", true, null, null, 0L);
+        item2 = new Item(2L, "item2_name", "item2_desc", true, null, null, 0L);
+        item3 = new Item(3L, "item3_name", "item3_desc", true, null, null, 0L);
         items.put(item1.getId(), item1);
         items.put(item2.getId(), item2);
         items.put(item3.getId(), item3);
 
         requests = new HashMap<>();
-        request1 = new Request(1L, "request1_desc", null, LocalDateTime.now());
-        request2 = new Request(2L, "request2_desc", null, LocalDateTime.now());
-        request3 = new Request(3L, "request3_desc", null, LocalDateTime.now());
+        request1 = new Request(1L, "request1_desc", null, LocalDateTime.now(), 0L);
+        request2 = new Request(2L, "request2_desc", null, LocalDateTime.now(), 0L);
+        request3 = new Request(3L, "request3_desc", null, LocalDateTime.now(), 0L);
         requests.put(request1.getId(), request1);
         requests.put(request2.getId(), request2);
         requests.put(request3.getId(), request3);
@@ -111,6 +139,8 @@ public class ItemServiceTest {
         MockBehaviourManager.setBookingRepositoryBehaviour(bookingRepository, bookings);
         MockBehaviourManager.setRequestRepositoryBehaviour(requestRepository, requests);
         MockBehaviourManager.setCommentRepositoryBehaviour(commentRepository, comments);
+        MockBehaviourManager.setCommentWriterBehaviour(commentWriter, commentRepository, itemDetailsCache);
+        MockBehaviourManager.setItemSearchEngineBehaviour(itemSearchEngine, items);
     }
 
     /*ItemDto createItem(ItemDto itemDto, Long userId) - создание вещи владельцем
@@ -121,6 +151,7 @@ public class ItemServiceTest {
         ItemDto dto = ItemDto.builder().name(item1.getName()).description(item1.getDescription()).available(item1.getAvailable()).build();
 
         assertThat(itemService.createItem(dto, user1.getId())).isEqualTo(ItemMapper.toItemDto(item1));
+        Mockito.verify(itemStatsRecorder).itemCreated(item1.getId());
     }
 
     @Test
@@ -171,6 +202,36 @@ public class ItemServiceTest {
         assertThat(itemService.updateItem(dto, user1.getId(), item1.getId())).isEqualTo(ItemMapper.toItemDto(item1));
     }
 
+    @Test
+    public void updateItem_partialPatch_keepsOtherFieldsAndLoadsItemOnce() {
+        item1.setOwner(user1);
+        item1.setItemRequest(request1);
+
+        ItemDto dto = ItemDto.builder().available(false).build();
+
+        assertThat(itemService.updateItem(dto, user1.getId(), item1.getId()))
+                .hasFieldOrPropertyWithValue("name", "item1_name")
+                .hasFieldOrPropertyWithValue("description", "item1_desc")
+                .hasFieldOrPropertyWithValue("available", false)
+                .hasFieldOrPropertyWithValue("requestId", request1.getId());
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(item1.getId());
+        Mockito.verify(userRepository, Mockito.never()).findById(Mockito.anyLong());
+    }
+
+    /*Проигравшее из двух одновременных изменений получает ItemChangedException (409), а не 500*/
+    @Test
+    public void updateItem_changedConcurrently_exceptionThrown() {
+        item1.setOwner(user1);
+        Mockito.doThrow(new ObjectOptimisticLockingFailureException(Item.class, item1.getId())).when(itemRepository).save(Mockito.any(Item.class));
+
+        ItemDto dto = ItemDto.builder().name("updated_name").build();
+
+        assertThatThrownBy(() -> itemService.updateItem(dto, user1.getId(), item1.getId()))
+                .isInstanceOf(ItemChangedException.class)
+                .hasFieldOrPropertyWithValue("itemId", item1.getId());
+        Mockito.verify(itemDetailsCache, Mockito.never()).evict(item1.getId());
+    }
+
     @Test
     public void updateItem_userNotOwner_exceptionThrown() {
         item1.setOwner(user2);
@@ -213,10 +274,9 @@ public class ItemServiceTest {
         dto.setNextBooking(BookingMapper.toBookingBookerIdDto(booking2));
         dto.setComments(new ArrayList<>());
 
-        Mockito.when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(Optional.of(booking1));
-        Mockito.when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(Optional.of(booking2));
+        Mockito.when(bookingRepository.findLastAndNextBookingsForItems(Mockito.anyCollection(), Mockito.any(), Mockito.anyString()))
+                .thenReturn(List.of(MockBehaviourManager.toItemBookingView(booking1, ItemBookingView.Kind.LAST),
+                        MockBehaviourManager.toItemBookingView(booking2, ItemBookingView.Kind.NEXT)));
 
         assertThat(itemService.findItemById(item1.getId(), user1.getId())).isEqualTo(dto);
     }
@@ -235,12 +295,161 @@ public class ItemServiceTest {
         assertThat(itemService.findItemById(item1.getId(), user3.getId())).extracting("nextBooking").isEqualTo(null);
     }
 
+    @Test
+    public void findItemByIdTest_repeatedRead_servedFromCache() {
+        item1.setOwner(user1);
+
+        itemService.findItemById(item1.getId(), user1.getId());
+        itemService.findItemById(item1.getId(), user2.getId());
+
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(item1.getId());
+    }
+
+    /*Изменение полученной вещи не меняет закэшированные детали*/
+    @Test
+    public void findItemByIdTest_returnedDtoChanged_cacheNotAffected() {
+        item1.setOwner(user1);
+        comments.put(1L, new Comment(1L, item1, user2, "comment1", LocalDateTime.now()));
+
+        ItemWithBookingsDto ownerDto = (ItemWithBookingsDto) itemService.findItemById(item1.getId(), user1.getId());
+        ownerDto.setName("changed");
+        ownerDto.getComments().get(0).setText("changed");
+        ownerDto.getComments().clear();
+        ((ItemWithBookingsDto) itemService.findItemById(item1.getId(), user2.getId())).getComments().clear();
+
+        ItemWithBookingsDto dto = (ItemWithBookingsDto) itemService.findItemById(item1.getId(), user1.getId());
+        assertThat(dto.getName()).isEqualTo(item1.getName());
+        assertThat(dto.getComments()).hasSize(1).element(0).hasFieldOrPropertyWithValue("text", "comment1");
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(item1.getId());
+    }
+
+    @Test
+    public void findItemByIdTest_afterComment_reloaded() {
+        item1.setOwner(user2);
+        booking1.setStatus(BookingStatus.APPROVED);
+        booking1.setEnd(LocalDateTime.now().minusSeconds(5));
+        booking1.setBooker(user1);
+        booking1.setItem(item1);
+
+        itemService.findItemById(item1.getId(), user2.getId());
+        itemService.createComment(CommentDto.builder().text("comment1").build(), item1.getId(), user1.getId());
+        itemService.findItemById(item1.getId(), user2.getId());
+
+        Mockito.verify(commentRepository, Mockito.times(2)).findAllByItemIdAndIdGreaterThan(Mockito.eq(item1.getId()), Mockito.eq(0L), Mockito.any(Pageable.class));
+    }
+
+    /*В деталях вещи первые 10 отзывов, счётчики из item_stats и id для запроса следующей страницы.
+     * Число бронирований видно только владельцу.*/
+    @Test
+    public void findItemByIdTest_manyComments_firstPageWithCursor() {
+        item1.setOwner(user1);
+        LocalDateTime created = LocalDateTime.now();
+        for (long id = 1; id <= 12; id++) {
+            comments.put(id, new Comment(id, item1, user2, "comment" + id, created));
+        }
+        Mockito.when(itemStatsRepository.findById(item1.getId())).thenReturn(Optional.of(new ItemStats(item1.getId(), 12, created, 3)));
+
+        ItemWithBookingsDto dto = (ItemWithBookingsDto) itemService.findItemById(item1.getId(), user1.getId());
+
+        assertThat(dto.getComments()).hasSize(10).extracting(CommentDto::getId).startsWith(1L).endsWith(10L);
+        assertThat(dto.getNextCommentsAfterId()).isEqualTo(10L);
+        assertThat(dto.getCommentCount()).isEqualTo(12);
+        assertThat(dto.getLastCommentAt()).isEqualTo(created);
+        assertThat(dto.getBookingCount()).isEqualTo(3);
+        assertThat(((ItemWithBookingsDto) itemService.findItemById(item1.getId(), user2.getId())).getBookingCount()).isZero();
+        assertThat(itemService.findItemComments(item1.getId(), dto.getNextCommentsAfterId(), 10))
+                .extracting(CommentDto::getId)
+                .containsExactly(11L, 12L);
+    }
+
+    /*Без строки item_stats счётчики считаются при чтении, а не показываются нулями*/
+    @Test
+    public void findItemByIdTest_noStatsRow_statsRecounted() {
+        item1.setOwner(user1);
+        LocalDateTime created = LocalDateTime.now();
+        Mockito.when(itemStatsRecorder.recount(item1.getId())).thenReturn(Optional.of(new ItemStats(item1.getId(), 4, created, 1)));
+
+        ItemWithBookingsDto dto = (ItemWithBookingsDto) itemService.findItemById(item1.getId(), user1.getId());
+
+        assertThat(dto.getCommentCount()).isEqualTo(4);
+        assertThat(dto.getLastCommentAt()).isEqualTo(created);
+        assertThat(dto.getBookingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findItemCommentsTest_zeroSize_exceptionThrown() {
+        assertThatThrownBy(() -> itemService.findItemComments(item1.getId(), 0, 0))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Size must be positive.");
+        Mockito.verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    public void findItemCommentsTest_notExistingItem_exceptionThrown() {
+        assertThatThrownBy(() -> itemService.findItemComments(100L, 0, 10)).isInstanceOf(EntityNotFoundException.class);
+    }
+
     @Test
     public void findItemByIdTest_notExistingItem_thrownException() {
         assertThatThrownBy(() -> itemService.findItemById(100L, user1.getId())).isInstanceOf(EntityNotFoundException.class);
     }
 
-    /*List<ItemDto> findOwnerItems(Long userId) - просмотр вещей пользователя.
+    /*ItemAvailabilityDto findItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) - занятость вещи
+     * Будущий диапазон берётся из календаря вещи, который читается из БД один раз и обновляется бронированиями.
+     * Прошедший диапазон читается из БД.*/
+
+    @Test
+    public void findItemAvailability_futureRange_calendarLoadedOnceAndUpdated() {
+        LocalDateTime from = LocalDateTime.now().plusHours(1);
+        booking1.setItem(item1);
+        booking1.setStatus(BookingStatus.APPROVED);
+        booking1.setStart(from.plusHours(1));
+        booking1.setEnd(from.plusHours(2));
+
+        itemService.findItemAvailability(item1.getId(), from, from.plusHours(10));
+        booking2.setItem(item1);
+        booking2.setStart(from.plusHours(3));
+        booking2.setEnd(from.plusHours(4));
+        itemCalendarCache.update(booking2);
+        ItemAvailabilityDto availability = itemService.findItemAvailability(item1.getId(), from, from.plusHours(10));
+
+        assertThat(availability.getBusy()).containsExactly(new ItemAvailabilityDto.Interval(from.plusHours(1), from.plusHours(2)));
+        assertThat(availability.getPending()).containsExactly(new ItemAvailabilityDto.Interval(from.plusHours(3), from.plusHours(4)));
+        assertThat(availability.getFree()).containsExactly(
+                new ItemAvailabilityDto.Interval(from, from.plusHours(1)),
+                new ItemAvailabilityDto.Interval(from.plusHours(2), from.plusHours(10)));
+        Mockito.verify(bookingRepository, Mockito.times(1)).findSlotsByItemIdEndingAfter(Mockito.eq(item1.getId()), Mockito.any(), Mockito.any());
+        Mockito.verify(bookingRepository, Mockito.never()).findSlotsByItemId(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void findItemAvailability_pastRange_readFromDatabase() {
+        LocalDateTime from = LocalDateTime.now().minusDays(2);
+        booking1.setItem(item1);
+        booking1.setStatus(BookingStatus.APPROVED);
+        booking1.setStart(from.plusHours(1));
+        booking1.setEnd(from.plusHours(2));
+
+        assertThat(itemService.findItemAvailability(item1.getId(), from, from.plusDays(1)).getBusy())
+                .containsExactly(new ItemAvailabilityDto.Interval(from.plusHours(1), from.plusHours(2)));
+        Mockito.verify(bookingRepository, Mockito.never()).findSlotsByItemIdEndingAfter(Mockito.anyLong(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void findItemAvailability_fromNotBeforeTo_thrownException() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThatThrownBy(() -> itemService.findItemAvailability(item1.getId(), from, from)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    public void findItemAvailability_notExistingItem_thrownException() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        assertThatThrownBy(() -> itemService.findItemAvailability(100L, from, from.plusDays(1))).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    /*List<ItemDto> findOwnerItems(Long userId, long afterId, int size) - просмотр вещей пользователя.
      * Может быть выполнено только пользователем.*/
 
     @Test
@@ -258,19 +467,57 @@ public class ItemServiceTest {
         dto.setNextBooking(BookingMapper.toBookingBookerIdDto(booking2));
         dto.setComments(new ArrayList<>());
 
-        Mockito.when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByEndDesc(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(Optional.of(booking1));
-        Mockito.when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                .thenReturn(Optional.of(booking2));
-        Mockito.when(itemRepository.findAllByOwnerIdOrderByIdAsc(Mockito.anyLong()))
+        Mockito.when(bookingRepository.findLastAndNextBookingsForItems(Mockito.anyCollection(), Mockito.any(), Mockito.anyString()))
+                .thenReturn(List.of(MockBehaviourManager.toItemBookingView(booking1, ItemBookingView.Kind.LAST),
+                        MockBehaviourManager.toItemBookingView(booking2, ItemBookingView.Kind.NEXT)));
+        Mockito.when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(item1));
+
+        assertThat(itemService.findOwnerItems(user1.getId(), 0, 10)).hasSize(1).element(0).isEqualTo(dto);
+    }
+
+    /*Список вещей берёт счётчики из item_stats и не читает отзывы*/
+    @Test
+    public void findOwnerItemsTest_withStats_commentsNotRead() {
+        item1.setOwner(user1);
+        LocalDateTime lastCommentAt = LocalDateTime.now();
+        Mockito.when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(Pageable.class)))
                 .thenReturn(List.of(item1));
+        Mockito.when(itemStatsRepository.findAllById(List.of(item1.getId())))
+                .thenReturn(List.of(new ItemStats(item1.getId(), 5, lastCommentAt, 2)));
+
+        assertThat(itemService.findOwnerItems(user1.getId(), 0, 10)).hasSize(1).element(0)
+                .hasFieldOrPropertyWithValue("commentCount", 5L)
+                .hasFieldOrPropertyWithValue("lastCommentAt", lastCommentAt)
+                .hasFieldOrPropertyWithValue("bookingCount", 2L)
+                .hasFieldOrPropertyWithValue("comments", List.of());
+        Mockito.verifyNoInteractions(commentRepository);
+    }
 
-        assertThat(itemService.findOwnerItems(user1.getId())).hasSize(1).element(0).isEqualTo(dto);
+    /*Вещи без строки item_stats получают пересчитанные счётчики*/
+    @Test
+    public void findOwnerItemsTest_noStatsRow_statsRecounted() {
+        item1.setOwner(user1);
+        Mockito.when(itemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenReturn(List.of(item1));
+        Mockito.when(itemStatsRecorder.recount(item1.getId())).thenReturn(Optional.of(new ItemStats(item1.getId(), 3, LocalDateTime.now(), 2)));
+
+        assertThat(itemService.findOwnerItems(user1.getId(), 0, 10)).hasSize(1).element(0)
+                .hasFieldOrPropertyWithValue("commentCount", 3L)
+                .hasFieldOrPropertyWithValue("bookingCount", 2L);
     }
 
     @Test
     public void findOwnerItemsTest_notExistingUser_exceptionThrown() {
-        assertThatThrownBy(() -> itemService.findOwnerItems(100L)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> itemService.findOwnerItems(100L, 0, 10)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    public void findOwnerItemsTest_zeroSize_exceptionThrown() {
+        assertThatThrownBy(() -> itemService.findOwnerItems(user1.getId(), 0, 0))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Size must be positive.");
+        Mockito.verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -278,7 +525,7 @@ public class ItemServiceTest {
         item1.setOwner(user1);
         item2.setOwner(user1);
         item3.setOwner(user1);
-        assertThat(itemService.searchAvailableItems("desc")).hasSize(3);
+        assertThat(itemService.searchAvailableItems("desc", 0, 10)).hasSize(3);
     }
 
     @Test
@@ -286,7 +533,7 @@ public class ItemServiceTest {
         item1.setOwner(user1);
         item2.setOwner(user1);
         item3.setOwner(user1);
-        assertThat(itemService.searchAvailableItems("no such text")).hasSize(0);
+        assertThat(itemService.searchAvailableItems("no such text", 0, 10)).hasSize(0);
     }
 
     @Test
@@ -294,7 +541,7 @@ public class ItemServiceTest {
         item1.setOwner(user1);
         item2.setOwner(user1);
         item3.setOwner(user1);
-        assertThat(itemService.searchAvailableItems("   ")).hasSize(0);
+        assertThat(itemService.searchAvailableItems("   ", 0, 10)).hasSize(0);
     }
 
     @Test
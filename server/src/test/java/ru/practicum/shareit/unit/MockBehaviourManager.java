@@ -2,13 +2,29 @@ package ru.practicum.shareit.unit;
 
 import org.mockito.Mockito;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.overlap.BookingOverlapGuard;
+import ru.practicum.shareit.booking.query.BookingQuery;
+import ru.practicum.shareit.booking.query.BookingQueryEngine;
+import ru.practicum.shareit.booking.query.BookingRole;
+import ru.practicum.shareit.booking.query.BookingState;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.availability.BookingSlot;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.CommentWriter;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -16,9 +32,13 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -54,6 +74,20 @@ public class MockBehaviourManager {
 
     public static void setItemRepositoryBehaviour(ItemRepository itemRepository, Map<Long, Item> items) {
 
+        Mockito.lenient().when(itemRepository.findAllById(any()))
+                .thenAnswer(invocation -> {
+                    List<Item> found = new ArrayList<>();
+                    invocation.<Iterable<Long>>getArgument(0).forEach(id -> {
+                        if (items.containsKey(id)) {
+                            found.add(items.get(id));
+                        }
+                    });
+                    return found;
+                });
+
+        Mockito.lenient().when(itemRepository.existsById(Mockito.anyLong()))
+                .thenAnswer(invocation -> items.containsKey(invocation.getArgument(0, Long.class)));
+
         Mockito.lenient().when(itemRepository.save(any(Item.class)))
                 .thenAnswer(invocation -> {
                     Item item = invocation.getArgument(0, Item.class);
@@ -68,25 +102,46 @@ public class MockBehaviourManager {
             return Optional.ofNullable(items.get(id));
         });
 
-        Mockito.lenient().when(itemRepository.findAllByDescriptionContainingIgnoreCaseAndAvailable(Mockito.anyString(), Mockito.anyBoolean()))
+        Mockito.lenient().when(itemRepository.searchAvailableDescriptionContaining(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
                 .thenAnswer(invocation -> {
-                    String desc = invocation.getArgument(0, String.class);
-                    boolean available = invocation.getArgument(1, Boolean.class);
+                    String pattern = invocation.getArgument(0, String.class);
+                    String desc = pattern.substring(1, pattern.length() - 1);
                     return items.values()
                             .stream()
-                            .filter(item -> item.getDescription().contains(desc))
+                            .filter(item -> item.getDescription().toLowerCase().contains(desc))
                             .filter(Item::getAvailable)
                             .sorted(Comparator.comparingLong(Item::getId))
+                            .skip(invocation.getArgument(1, Integer.class))
+                            .limit(invocation.getArgument(2, Integer.class))
                             .collect(Collectors.toList());
                 });
 
-        Mockito.lenient().when(itemRepository.findAllByItemRequestId(Mockito.anyLong()))
+        Mockito.lenient().when(itemRepository.findAllByItemRequestIdIn(Mockito.anyCollection()))
                 .thenAnswer(invocation -> {
-                    long requestId = invocation.getArgument(0, Long.class);
+                    Collection<Long> requestIds = invocation.getArgument(0);
                     return items.values()
                             .stream()
                             .filter(item -> item.getItemRequest() != null)
-                            .filter(item -> item.getItemRequest().getId().equals(requestId))
+                            .filter(item -> requestIds.contains(item.getItemRequest().getId()))
+                            .sorted(Comparator.comparingLong(Item::getId))
+                            .map(ItemMapper::toItemDto)
+                            .collect(Collectors.toList());
+                });
+    }
+
+    public static void setItemSearchEngineBehaviour(ItemSearchEngine itemSearchEngine, Map<Long, Item> items) {
+        Mockito.lenient().when(itemSearchEngine.searchAvailable(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt()))
+                .thenAnswer(invocation -> {
+                    String text = invocation.getArgument(0, String.class);
+                    int from = invocation.getArgument(1, Integer.class);
+                    int size = invocation.getArgument(2, Integer.class);
+                    return items.values()
+                            .stream()
+                            .filter(item -> item.getDescription().contains(text))
+                            .filter(Item::getAvailable)
+                            .sorted(Comparator.comparingLong(Item::getId))
+                            .skip(from)
+                            .limit(size)
                             .collect(Collectors.toList());
                 });
     }
@@ -99,11 +154,44 @@ public class MockBehaviourManager {
                     return booking;
                 });
 
+        Mockito.lenient().when(bookingRepository.saveAll(any()))
+                .thenAnswer(invocation -> {
+                    List<Booking> saved = new ArrayList<>();
+                    for (Booking booking : invocation.<Iterable<Booking>>getArgument(0)) {
+                        booking.setId(bookings.size() + saved.size() + 1L);
+                        saved.add(booking);
+                    }
+                    return saved;
+                });
+
+        Mockito.lenient().when(bookingRepository.saveAndFlush(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0, Booking.class));
+
         Mockito.lenient().when(bookingRepository.findById(Mockito.anyLong())).thenAnswer(invocation -> {
             long id = invocation.getArgument(0, Long.class);
             return Optional.ofNullable(bookings.get(id));
         });
 
+        Mockito.lenient().when(bookingRepository.findSlotsByItemIdEndingAfter(Mockito.anyLong(), any(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> findSlots(bookings, invocation.getArgument(0, Long.class),
+                        invocation.getArgument(1), invocation.getArgument(2, LocalDateTime.class), LocalDateTime.MAX));
+
+        Mockito.lenient().when(bookingRepository.findSlotsByItemId(Mockito.anyLong(), any(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> findSlots(bookings, invocation.getArgument(0, Long.class),
+                        invocation.getArgument(1), invocation.getArgument(2, LocalDateTime.class), invocation.getArgument(3, LocalDateTime.class)));
+
+        Mockito.lenient().when(bookingRepository.updateWaitingBookingStatus(Mockito.anyLong(), Mockito.anyLong(), any(BookingStatus.class)))
+                .thenAnswer(invocation -> {
+                    Booking booking = bookings.get(invocation.getArgument(0, Long.class));
+                    long ownerId = invocation.getArgument(1, Long.class);
+                    if (booking == null || booking.getStatus() != BookingStatus.WAITING || booking.getItem().getOwner().getId() != ownerId) {
+                        return 0;
+                    }
+                    booking.setStatus(invocation.getArgument(2, BookingStatus.class));
+                    booking.setVersion(booking.getVersion() + 1);
+                    return 1;
+                });
+
         Mockito.lenient().when(bookingRepository.findFirstByItemIdAndBookerIdAndStatusAndEndBefore(
                         Mockito.anyLong(), Mockito.anyLong(), any(BookingStatus.class), any(LocalDateTime.class)))
                 .thenAnswer(invocation -> {
@@ -117,59 +205,62 @@ public class MockBehaviourManager {
                             .filter(book -> book.getBooker().getId() == userId)
                             .findFirst();
                 });
+    }
 
-        Mockito.lenient().when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(Mockito.anyLong(), any(), any(), any(Pageable.class)))
+    //запрос выполняется фильтрацией бронирований в памяти, порядок - по id
+    public static void setBookingQueryEngineBehaviour(BookingQueryEngine bookingQueryEngine, Map<Long, Booking> bookings) {
+        Mockito.lenient().when(bookingQueryEngine.find(any(BookingQuery.class)))
                 .thenAnswer(invocation -> {
-                    long bookerId = invocation.getArgument(0, Long.class);
+                    BookingQuery query = invocation.getArgument(0, BookingQuery.class);
+                    LocalDateTime now = LocalDateTime.now();
                     return bookings.values()
                             .stream()
-                            .filter(b -> b.getBooker().getId() == bookerId)
-                            .filter(b -> b.getStart().isBefore(LocalDateTime.now()) && b.getEnd().isAfter(LocalDateTime.now()))
+                            .filter(b -> (query.getRole() == BookingRole.BOOKER ? b.getBooker().getId() : b.getItem().getOwner().getId()).equals(query.getUserId()))
+                            .filter(b -> query.getStates().stream().anyMatch(state -> matches(b, state, now)))
+                            .skip(query.getOffset())
+                            .limit(query.getLimit())
                             .collect(Collectors.toList());
                 });
+    }
 
-        Mockito.lenient().when(bookingRepository.findAllByBookerIdAndEndBefore(Mockito.anyLong(), any(), any(Pageable.class)))
+    public static void setCommentRepositoryBehaviour(CommentRepository commentRepository, Map<Long, Comment> comments) {
+        Mockito.lenient().when(commentRepository.save(any(Comment.class)))
                 .thenAnswer(invocation -> {
-                    long bookerId = invocation.getArgument(0, Long.class);
-                    return bookings.values()
-                            .stream()
-                            .filter(b -> b.getBooker().getId() == bookerId)
-                            .filter(b -> b.getEnd().isBefore(LocalDateTime.now()))
-                            .collect(Collectors.toList());
+                    Comment comment = invocation.getArgument(0, Comment.class);
+                    if (comment.getId() == null) {
+                        comment.setId(1L);
+                    }
+                    return comment;
                 });
 
-        Mockito.lenient().when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(Mockito.anyLong(), any(), any(), any(Pageable.class)))
+        Mockito.lenient().when(commentRepository.findAllByItemIdAndIdGreaterThan(Mockito.anyLong(), Mockito.anyLong(), any(Pageable.class)))
                 .thenAnswer(invocation -> {
-                    Long ownerId = invocation.getArgument(0, Long.class);
-                    return bookings.values()
+                    Long itemId = invocation.getArgument(0, Long.class);
+                    long afterId = invocation.getArgument(1, Long.class);
+                    Pageable page = invocation.getArgument(2, Pageable.class);
+                    return comments.values()
                             .stream()
-                            .filter(b -> b.getItem().getOwner().getId().equals(ownerId))
-                            .filter(b -> b.getStart().isBefore(LocalDateTime.now()))
-                            .sorted((b1, b2) -> b1.getStart().isBefore(b2.getStart()) ? -1 : 1)
+                            .filter(comment -> comment.getItem().getId().equals(itemId) && comment.getId() > afterId)
+                            .sorted(Comparator.comparing(Comment::getId))
+                            .limit(page.getPageSize())
                             .collect(Collectors.toList());
                 });
+    }
 
-        Mockito.lenient().when(bookingRepository.findAllByItemOwnerIdAndEndBefore(Mockito.anyLong(), any(), any(Pageable.class)))
+    //отзыв записывается сразу, как в режиме sync
+    public static void setCommentWriterBehaviour(CommentWriter commentWriter, CommentRepository commentRepository, ItemDetailsCache itemDetailsCache) {
+        Mockito.lenient().when(commentWriter.write(any(Comment.class)))
                 .thenAnswer(invocation -> {
-                    Long ownerId = invocation.getArgument(0, Long.class);
-                    return bookings.values()
-                            .stream()
-                            .filter(b -> b.getItem().getOwner().getId().equals(ownerId))
-                            .filter(b -> b.getEnd().isBefore(LocalDateTime.now()))
-                            .sorted((b1, b2) -> b1.getStart().isBefore(b2.getStart()) ? -1 : 1)
-                            .collect(Collectors.toList());
+                    Comment comment = commentRepository.save(invocation.getArgument(0, Comment.class));
+                    itemDetailsCache.evict(comment.getItem().getId());
+                    return CommentMapper.toCommentDto(comment);
                 });
     }
 
-    public static void setCommentRepositoryBehaviour(CommentRepository commentRepository, Map<Long, Comment> comments) {
-        Mockito.lenient().when(commentRepository.save(any(Comment.class)))
-                .thenAnswer(invocation -> {
-                    Comment comment = invocation.getArgument(0, Comment.class);
-                    if (comment.getId() == null) {
-                        comment.setId(1L);
-                    }
-                    return comment;
-                });
+    //колбэк выполняется сразу, без транзакции
+    public static void setTransactionOperationsBehaviour(TransactionOperations transactionOperations) {
+        Mockito.lenient().when(transactionOperations.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
     }
 
     public static void setRequestRepositoryBehaviour(RequestRepository requestRepository, Map<Long, Request> requests) {
@@ -206,4 +297,51 @@ public class MockBehaviourManager {
                             .collect(Collectors.toList());
                 });
     }
+
+    //все интервалы свободны: подтверждение выполняется сразу
+    public static void setBookingOverlapGuardBehaviour(BookingOverlapGuard bookingOverlapGuard) {
+        Mockito.lenient().when(bookingOverlapGuard.reserve(Mockito.anyLong(), Mockito.anyLong(), any(), any(), any()))
+                .thenAnswer(invocationOnMock -> ((Supplier<?>) invocationOnMock.getArgument(4)).get());
+        Mockito.lenient().when(bookingOverlapGuard.prepare(any(), any()))
+                .thenReturn(bookingOverlapGuard::assertFree);
+    }
+
+    private static boolean matches(Booking booking, BookingState state, LocalDateTime now) {
+        switch (state) {
+            case CURRENT:
+                return booking.getStart().isBefore(now) && booking.getEnd().isAfter(now);
+            case PAST:
+                return booking.getEnd().isBefore(now);
+            case FUTURE:
+                return booking.getStart().isAfter(now);
+            case WAITING:
+                return booking.getStatus() == BookingStatus.WAITING;
+            case REJECTED:
+                return booking.getStatus() == BookingStatus.REJECTED;
+            default:
+                return true;
+        }
+    }
+
+    private static List<BookingSlot> findSlots(Map<Long, Booking> bookings, long itemId, Collection<BookingStatus> statuses,
+                                               LocalDateTime from, LocalDateTime to) {
+        return bookings.values()
+                .stream()
+                .filter(book -> book.getItem() != null && book.getItem().getId() == itemId)
+                .filter(book -> statuses.contains(book.getStatus()))
+                .filter(book -> book.getStart().isBefore(to) && book.getEnd().isAfter(from))
+                .sorted(Comparator.comparing(Booking::getStart))
+                .map(book -> new BookingSlot(book.getId(), book.getStart(), book.getEnd(), book.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    public static ItemBookingView toItemBookingView(Booking booking, ItemBookingView.Kind kind) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("itemId", booking.getItem().getId());
+        values.put("kind", kind);
+        values.put("id", booking.getId());
+        values.put("bookerId", booking.getBooker().getId());
+        values.put("start", booking.getStart());
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemBookingView.class, values);
+    }
 }
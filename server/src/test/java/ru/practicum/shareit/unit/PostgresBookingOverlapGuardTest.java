@@ -0,0 +1,66 @@
+package ru.practicum.shareit.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.overlap.OverlapCheck;
+import ru.practicum.shareit.booking.overlap.PostgresBookingOverlapGuard;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.exceptions.BookingOverlapException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+@ExtendWith(MockitoExtension.class)
+public class PostgresBookingOverlapGuardTest {
+    @InjectMocks
+    PostgresBookingOverlapGuard overlapGuard;
+    @Mock
+    BookingRepository bookingRepository;
+
+    LocalDateTime base;
+    Item item1, item2;
+
+    @BeforeEach
+    public void prepareTestEnvironment() {
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+        item1 = new Item(1L, "item1", "desc", true, null, null, 0L);
+        item2 = new Item(2L, "item2", "desc", true, null, null, 0L);
+    }
+
+    /*Подтверждённые интервалы всех вещей пакета читаются одним запросом, записи проверяются в памяти*/
+    @Test
+    public void prepare_batchOfItems_oneQueryForAllEntries() {
+        Mockito.when(bookingRepository.findAllByItemIdInAndStatusAndEndAfter(List.of(1L, 2L), BookingStatus.APPROVED, base))
+                .thenReturn(List.of(
+                        new Booking(10L, item1, null, base.plusHours(10), base.plusHours(20), BookingStatus.APPROVED, 0L),
+                        new Booking(11L, item2, null, base.plusHours(30), base.plusHours(40), BookingStatus.APPROVED, 0L)));
+
+        OverlapCheck overlapCheck = overlapGuard.prepare(List.of(1L, 2L), base);
+
+        assertThatThrownBy(() -> overlapCheck.assertFree(1L, base.plusHours(5), base.plusHours(11)))
+                .isInstanceOf(BookingOverlapException.class);
+        assertThatThrownBy(() -> overlapCheck.assertFree(2L, base.plusHours(39), base.plusHours(45)))
+                .isInstanceOf(BookingOverlapException.class);
+        overlapCheck.assertFree(1L, base.plusHours(20), base.plusHours(30));
+        overlapCheck.assertFree(2L, base.plusHours(10), base.plusHours(20));
+        Mockito.verify(bookingRepository, Mockito.never()).existsApprovedOverlapping(Mockito.anyLong(), any(), any());
+    }
+
+    @Test
+    public void prepare_noItems_noQuery() {
+        overlapGuard.prepare(List.of(), base).assertFree(1L, base, base.plusHours(1));
+
+        Mockito.verifyNoInteractions(bookingRepository);
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
@@ -58,9 +59,9 @@ public class RequestServiceTest {
 
     public void createEntities() {
         bookings = new HashMap<>();
-        booking1 = new Booking(1L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
-        booking2 = new Booking(2L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
-        booking3 = new Booking(3L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING);
+        booking1 = new Booking(1L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
+        booking2 = new Booking(2L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
+        booking3 = new Booking(3L, null, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), BookingStatus.WAITING, 0L);
         bookings.put(booking1.getId(), booking1);
         bookings.put(booking2.getId(), booking2);
         bookings.put(booking3.getId(), booking3);
@@ -74,17 +75,17 @@ public class RequestServiceTest {
         users.put(user3.getId(), user3);
 
         items = new HashMap<>();
-        item1 = new Item(1L, "item1_name", "item1_desc", true, null, null);
-        item2 = new Item(2L, "item2_name", "item2_desc", true, null, null);
-        item3 = new Item(3L, "item3_name", "item3_desc", true, null, null);
+        item1 = new Item(1L, "item1_name", "item1_desc", true, null, null, 0L);
+        item2 = new Item(2L, "item2_name", "item2_desc", true, null, null, 0L);
+        item3 = new Item(3L, "item3_name", "item3_desc", true, null, null, 0L);
         items.put(item1.getId(), item1);
         items.put(item2.getId(), item2);
         items.put(item3.getId(), item3);
 
         requests = new HashMap<>();
-        request1 = new Request(1L, "request1_desc", null, LocalDateTime.now());
-        request2 = new Request(2L, "request2_desc", null, LocalDateTime.now());
-        request3 = new Request(3L, "request3_desc", null, LocalDateTime.now());
+        request1 = new Request(1L, "request1_desc", null, LocalDateTime.now(), 0L);
+        request2 = new Request(2L, "request2_desc", null, LocalDateTime.now(), 0L);
+        request3 = new Request(3L, "request3_desc", null, LocalDateTime.now(), 0L);
         requests.put(request1.getId(), request1);
         requests.put(request2.getId(), request2);
         requests.put(request3.getId(), request3);
@@ -168,7 +169,7 @@ public class RequestServiceTest {
         item1.setOwner(user2);
         item1.setItemRequest(request1);
 
-        RequestWithItems dtoExpected = RequestMapper.toRequestWithItems(request1, List.of(item1));
+        RequestWithItems dtoExpected = RequestMapper.toRequestWithItems(request1, List.of(ItemMapper.toItemDto(item1)));
 
         assertThat(requestService.findRequestById(user1.getId(), request1.getId())).isEqualTo(dtoExpected);
     }
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.unit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.exception.exceptions.ShareItException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShareItExceptionTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger(ShareItException.class);
+    private final Level initialLevel = logger.getLevel();
+
+    @AfterEach
+    public void restoreLogLevel() {
+        logger.setLevel(initialLevel);
+    }
+
+    /*Без debug-логирования стек не заполняется и место выброса не вычисляется.*/
+    @Test
+    public void create_debugDisabled_noStackTraceAndNoThrowSite() {
+        logger.setLevel(Level.INFO);
+
+        EntityNotFoundException exc = new EntityNotFoundException("User not found.", 1L);
+
+        assertThat(exc.getStackTrace()).isEmpty();
+        assertThat(exc.getBackInfo()).isNull();
+        assertThat(exc.getTime()).isNotNull();
+        assertThat(exc.getMessage()).isEqualTo("User not found.");
+    }
+
+    /*С debug-логированием сохраняется место выброса исключения.*/
+    @Test
+    public void create_debugEnabled_throwSiteCaptured() {
+        logger.setLevel(Level.DEBUG);
+
+        EntityNotFoundException exc = new EntityNotFoundException("User not found.", 1L);
+
+        assertThat(exc.getStackTrace()).isEmpty();
+        assertThat(exc.getBackInfo())
+                .startsWith(ShareItExceptionTest.class.getName() + ".create_debugEnabled_throwSiteCaptured");
+    }
+}
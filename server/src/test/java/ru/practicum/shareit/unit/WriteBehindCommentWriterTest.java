@@ -0,0 +1,187 @@
+package ru.practicum.shareit.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.exception.exceptions.CommentQueueFullException;
+import ru.practicum.shareit.item.cache.ItemDetailsCache;
+import ru.practicum.shareit.item.comment.WriteBehindCommentWriter;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.stats.ItemStatsRecorder;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+
+@ExtendWith(MockitoExtension.class)
+public class WriteBehindCommentWriterTest {
+    @Mock
+    CommentRepository commentRepository;
+    @Mock
+    ItemDetailsCache itemDetailsCache;
+    @Mock
+    ItemStatsRecorder itemStatsRecorder;
+    @Captor
+    ArgumentCaptor<List<Comment>> batches;
+    SimpleMeterRegistry meterRegistry;
+    WriteBehindCommentWriter writer;
+    Item item;
+    User author;
+
+    @BeforeEach
+    public void createEntities() {
+        meterRegistry = new SimpleMeterRegistry();
+        author = new User(1L, "author", "author@email.ru");
+        item = new Item(1L, "item_name", "item_desc", true, new User(2L, "owner", "owner@email.ru"), null, 0L);
+    }
+
+    @AfterEach
+    public void closeWriter() throws InterruptedException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /*Отзывы записываются одним saveAll, как только набирается batch-size*/
+    @Test
+    public void write_batchSizeReached_flushedInOneSaveAll() {
+        writer = createWriter(100, 3, Duration.ofSeconds(10));
+
+        assertThat(writer.write(comment("comment1"))).hasFieldOrPropertyWithValue("id", null)
+                .hasFieldOrPropertyWithValue("authorName", author.getName());
+        writer.write(comment("comment2"));
+        writer.write(comment("comment3"));
+
+        assertThat(captureSavedBatches(1)).hasSize(1).element(0).asList().hasSize(3);
+        Mockito.verify(itemDetailsCache, Mockito.timeout(1000)).evict(item.getId());
+        Mockito.verify(itemStatsRecorder).commentsAdded(Mockito.eq(item.getId()), Mockito.eq(3L), any(LocalDateTime.class));
+    }
+
+    /*Неполный пакет записывается по истечении flush-interval*/
+    @Test
+    public void write_flushIntervalPassed_partialBatchFlushed() {
+        writer = createWriter(100, 50, Duration.ofMillis(50));
+
+        writer.write(comment("comment1"));
+
+        assertThat(captureSavedBatches(1)).element(0).asList().hasSize(1);
+        assertThat(meterRegistry.timer("shareit.comments.write-behind.flush").count()).isEqualTo(1);
+    }
+
+    /*Переполненная очередь отклоняет отзыв (429)*/
+    @Test
+    public void write_queueFull_exceptionThrown() throws InterruptedException {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(commentRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return List.of();
+        });
+        writer = createWriter(1, 1, Duration.ofMillis(10));
+
+        writer.write(comment("comment1"));
+        flushing.await();
+        writer.write(comment("comment2"));
+
+        assertThatThrownBy(() -> writer.write(comment("comment3"))).isInstanceOf(CommentQueueFullException.class);
+        assertThat(meterRegistry.get("shareit.comments.write-behind.queue.size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.counter("shareit.comments.write-behind.rejected").count()).isEqualTo(1);
+        release.countDown();
+    }
+
+    /*При остановке очередь дописывается до конца*/
+    @Test
+    public void close_pendingComments_drained() throws InterruptedException {
+        writer = createWriter(100, 50, Duration.ofSeconds(10));
+        for (int i = 0; i < 5; i++) {
+            writer.write(comment("comment" + i));
+        }
+
+        writer.close();
+
+        Mockito.verify(commentRepository, Mockito.atLeastOnce()).saveAll(batches.capture());
+        assertThat(batches.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(5);
+        assertThatThrownBy(() -> writer.write(comment("late"))).isInstanceOf(CommentQueueFullException.class);
+        writer = null;
+    }
+
+    /*Каждый принятый во время остановки отзыв записывается*/
+    @Test
+    public void close_concurrentWrites_acceptedCommentsNotLost() throws InterruptedException {
+        writer = createWriter(10_000, 50, Duration.ofMillis(10));
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        CountDownLatch started = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            writers.execute(() -> {
+                started.countDown();
+                try {
+                    while (true) {
+                        writer.write(comment("comment"));
+                        accepted.incrementAndGet();
+                    }
+                } catch (CommentQueueFullException exc) {
+                    //запись остановлена
+                }
+            });
+        }
+        started.await();
+
+        writer.close();
+        writers.shutdown();
+        assertThat(writers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        Mockito.verify(commentRepository, Mockito.atLeastOnce()).saveAll(batches.capture());
+        assertThat(batches.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(accepted.get());
+        writer = null;
+    }
+
+    /*Ошибочный пакет дописывается по одному отзыву*/
+    @Test
+    public void write_batchFailed_commentsSavedOneByOne() {
+        Mockito.when(commentRepository.saveAll(anyIterable())).thenThrow(new IllegalStateException("batch failed"));
+        Mockito.when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        writer = createWriter(100, 2, Duration.ofSeconds(10));
+
+        writer.write(comment("comment1"));
+        writer.write(comment("comment2"));
+
+        Mockito.verify(commentRepository, Mockito.timeout(1000).times(2)).save(any(Comment.class));
+    }
+
+    private WriteBehindCommentWriter createWriter(int capacity, int batchSize, Duration flushInterval) {
+        return new WriteBehindCommentWriter(commentRepository, itemDetailsCache, itemStatsRecorder, TransactionOperations.withoutTransaction(),
+                capacity, batchSize, flushInterval, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    private List<List<Comment>> captureSavedBatches(int times) {
+        Mockito.verify(commentRepository, Mockito.timeout(1000).times(times)).saveAll(batches.capture());
+        return batches.getAllValues();
+    }
+
+    private Comment comment(String text) {
+        return Comment.builder().item(item).author(author).text(text).created(LocalDateTime.now()).build();
+    }
+}
@@ -8,8 +8,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.controller.BookingController;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.query.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.exceptions.BookingStatusAlreadyApprovedException;
 import ru.practicum.shareit.exception.exceptions.UnknownStateException;
@@ -19,11 +21,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -105,7 +111,7 @@ public class BookingControllerTest {
     @Test
     public void updateBooking_approvedStatus_exceptionThrown() throws Exception {
         when(bookingServiceMock.updateBooking(bookingId, true, bookerId))
-                .thenThrow(new BookingStatusAlreadyApprovedException("Booking status has been already approved.", dto.getId(), String.valueOf(Thread.currentThread().getStackTrace()[1])));
+                .thenThrow(new BookingStatusAlreadyApprovedException("Booking status has been already approved.", dto.getId()));
 
         mvc.perform(patch("/bookings/{bookingId}", bookingId)
                         .header("X-Sharer-User-Id", bookerId)
@@ -166,7 +172,7 @@ public class BookingControllerTest {
         String size = "20";
 
         when(bookingServiceMock.findAllBookingsByOwnerIdAndState(ownerId, state, Integer.parseInt(from), Integer.parseInt(size)))
-                .thenThrow(new UnknownStateException(String.format("Unknown state: %s", state), state, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+                .thenThrow(new UnknownStateException(String.format("Unknown state: %s", state), state));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", ownerId)
@@ -206,4 +212,64 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[1].start").value(dto2.getStart().format(formatter)))
                 .andExpect(jsonPath("$[1].end").value(dto2.getEnd().format(formatter)));
     }
+
+    @Test
+    public void findAllBookingsForOwnerItemsWithState_cursor_nextCursorHeader() throws Exception {
+        long ownerId = 1L;
+        String state = "ALL";
+        String cursor = new BookingCursor(start.plusYears(2), 3L).encode();
+
+        when(bookingServiceMock.findAllBookingsForOwnerItemsWithState(ownerId, state, cursor, 2)).thenReturn(List.of(dto2, dto1));
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", state)
+                        .param("cursor", cursor)
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, new BookingCursor(dto1.getStart(), dto1.getId()).encode()));
+    }
+
+    @Test
+    public void findAllBookingsByOwnerIdAndState_lastPage_noNextCursorHeader() throws Exception {
+        long ownerId = 1L;
+        String state = "ALL";
+
+        when(bookingServiceMock.findAllBookingsByOwnerIdAndState(ownerId, state, 0, 20)).thenReturn(List.of(dto1, dto2));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("state", state)
+                        .param("size", "20")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void exportBookingsForOwnerItemsWithState_ndjsonLines() throws Exception {
+        long ownerId = 1L;
+
+        when(bookingServiceMock.exportBookingsForOwnerItemsWithState(ownerId, "ALL")).thenReturn(action -> {
+            action.accept(dto2);
+            action.accept(dto1);
+        });
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //ограничение времени снято только для выгрузки
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isNegative();
+        String[] lines = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(mapper.readValue(lines[0], BookingDto.class).getId()).isEqualTo(dto2.getId());
+        assertThat(mapper.readValue(lines[1], BookingDto.class).getId()).isEqualTo(dto1.getId());
+    }
 }
@@ -6,14 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.exception.exceptions.CommentQueueFullException;
 import ru.practicum.shareit.exception.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exception.exceptions.IllegalAccessToEntityException;
+import ru.practicum.shareit.exception.exceptions.ItemChangedException;
 import ru.practicum.shareit.exception.exceptions.ItemIdNotConsistentException;
 import ru.practicum.shareit.exception.exceptions.NoResolvedBookingException;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
@@ -23,9 +27,15 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -71,7 +81,7 @@ public class ItemControllerTest {
 
     @Test
     public void createItem_UserNotFound_exceptionThrown() throws Exception {
-        when(itemServiceMock.createItem(dto, dto.getOwnerId())).thenThrow(new EntityNotFoundException("User not found.", 1L, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+        when(itemServiceMock.createItem(dto, dto.getOwnerId())).thenThrow(new EntityNotFoundException("User not found.", 1L));
 
         mvc.perform(post("/items")
                         .header("X-Sharer-User-Id", dto.getOwnerId())
@@ -106,11 +116,29 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.ownerId").value(dto.getOwnerId()));
     }
 
+    @Test
+    public void updateItem_changedConcurrently_conflict() throws Exception {
+        when(itemServiceMock.updateItem(dto, dto.getOwnerId(), dto.getId()))
+                .thenThrow(new ItemChangedException("Item has been changed concurrently.", dto.getId()));
+
+        mvc.perform(patch("/items/{itemId}", dto.getId())
+                        .header("X-Sharer-User-Id", dto.getOwnerId())
+                        .content(mapper.writeValueAsString(dto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof ItemChangedException))
+                .andExpect(jsonPath("$.time").exists())
+                .andExpect(jsonPath("$.message").value("Item has been changed concurrently."))
+                .andExpect(jsonPath("$.itemId").value(dto.getId()));
+    }
+
     @Test
     public void updateItem_illegalAccess_exceptionThrown() throws Exception {
         long userId = dto.getOwnerId();
         long itemId = dto.getId();
-        when(itemServiceMock.updateItem(dto, dto.getOwnerId(), dto.getId())).thenThrow(new IllegalAccessToEntityException(String.format("Fail to grant access user id: %s to item id: %s", userId, itemId), itemId, userId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+        when(itemServiceMock.updateItem(dto, dto.getOwnerId(), dto.getId())).thenThrow(new IllegalAccessToEntityException(String.format("Fail to grant access user id: %s to item id: %s", userId, itemId), itemId, userId));
 
         mvc.perform(patch("/items/{itemId}", dto.getId())
                         .header("X-Sharer-User-Id", dto.getOwnerId())
@@ -132,7 +160,7 @@ public class ItemControllerTest {
         long userId = dto.getOwnerId();
         long itemId = dto.getId();
         when(itemServiceMock.updateItem(dto, dto.getOwnerId(), dto.getId()))
-                .thenThrow(new ItemIdNotConsistentException(LocalDateTime.now() + " : " + Thread.currentThread().getStackTrace()[1], String.format("Fail to validate id consistensy for dto: %s and itemId: %s", dto, itemId), dto, userId, itemId));
+                .thenThrow(new ItemIdNotConsistentException(String.format("Fail to validate id consistensy for dto: %s and itemId: %s", dto, itemId), dto, userId, itemId));
 
         mvc.perform(patch("/items/{itemId}", dto.getId())
                         .header("X-Sharer-User-Id", dto.getOwnerId())
@@ -167,27 +195,74 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.ownerId").value(dto.getOwnerId()));
     }
 
+    @Test
+    public void findItemById_matchingIfNoneMatch_notModified() throws Exception {
+        when(itemServiceMock.findItemETag(dto.getId(), dto.getOwnerId())).thenReturn("\"etag\"");
+
+        mvc.perform(get("/items/{itemId}", dto.getId())
+                        .header("X-Sharer-User-Id", dto.getOwnerId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"etag\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag\""))
+                .andExpect(content().string(""));
+        verify(itemServiceMock, never()).findItemById(anyLong(), anyLong());
+    }
+
+    @Test
+    public void findItemById_staleIfNoneMatch_bodyWithETag() throws Exception {
+        when(itemServiceMock.findItemETag(dto.getId(), dto.getOwnerId())).thenReturn("\"etag\"");
+        when(itemServiceMock.findItemById(dto.getId(), dto.getOwnerId())).thenReturn(dto);
+
+        mvc.perform(get("/items/{itemId}", dto.getId())
+                        .header("X-Sharer-User-Id", dto.getOwnerId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"old\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag\""))
+                .andExpect(jsonPath("$.id").value(dto.getId()));
+    }
+
     @Test
     public void findOwnerItems_succeed() throws Exception {
         long ownerId = 1L;
 
-        when(itemServiceMock.findOwnerItems(any())).thenReturn(List.of(dto1, dto2));
+        when(itemServiceMock.findOwnerItems(any(), anyLong(), anyInt())).thenReturn(List.of(dto1, dto2));
 
         mvc.perform(get("/items")
                         .header("X-Sharer-User-Id", ownerId)
+                        .param("afterId", "0")
+                        .param("size", "10")
                         .contentType(MediaType.APPLICATION_JSON)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].id").value(dto1.getId()))
-                .andExpect(jsonPath("$[1].id").value(dto2.getId()));
+                .andExpect(jsonPath("$[1].id").value(dto2.getId()))
+                .andExpect(header().doesNotExist("X-Next-After-Id"));
+    }
+
+    /*Полная страница сообщает afterId следующей в заголовке X-Next-After-Id*/
+    @Test
+    public void findOwnerItems_fullPage_nextAfterIdHeader() throws Exception {
+        when(itemServiceMock.findOwnerItems(any(), anyLong(), anyInt())).thenReturn(List.of(dto1, dto2));
+
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("afterId", "0")
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-After-Id", String.valueOf(dto2.getId())));
     }
 
     @Test
     public void searchAvailableItems_succeed() throws Exception {
-        when(itemServiceMock.searchAvailableItems(anyString())).thenReturn(List.of(dto1, dto2));
+        when(itemServiceMock.searchAvailableItems(anyString(), anyInt(), anyInt())).thenReturn(List.of(dto1, dto2));
 
         mvc.perform(get("/items/search")
                         .param("text", "stringToFind")
+                        .param("from", "0")
+                        .param("size", "10")
                         .contentType(MediaType.APPLICATION_JSON)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON))
@@ -230,7 +305,7 @@ public class ItemControllerTest {
         long commentatorId = 1L;
 
         when(itemServiceMock.createComment(commentDto, itemId, commentatorId))
-                .thenThrow(new NoResolvedBookingException("No resolved booking found.", itemId, commentatorId, String.valueOf(Thread.currentThread().getStackTrace()[1])));
+                .thenThrow(new NoResolvedBookingException("No resolved booking found.", itemId, commentatorId));
 
         mvc.perform(post("/items/{itemId}/comment", itemId)
                         .header("X-Sharer-User-Id", commentatorId)
@@ -245,4 +320,82 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.itemId").value(itemId))
                 .andExpect(jsonPath("$.userId").value(commentatorId));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findItemComments_afterId_succeed() throws Exception {
+        long itemId = 1L;
+        LocalDateTime created = LocalDateTime.of(2023, 6, 7, 0, 0);
+
+        when(itemServiceMock.findItemComments(itemId, 10L, 5)).thenReturn(List.of(new CommentDto(11L, "comment11", "user1", created)));
+
+        mvc.perform(get("/items/{itemId}/comments", itemId)
+                        .param("afterId", "10")
+                        .param("size", "5")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(11L))
+                .andExpect(jsonPath("$[0].text").value("comment11"));
+    }
+
+    /*В режиме write-behind отзыв ещё не записан: 202 без идентификатора*/
+    @Test
+    public void createComment_writeBehind_accepted() throws Exception {
+        long itemId = 1L;
+        long commentatorId = 1L;
+
+        when(itemServiceMock.createComment(commentDto, itemId, commentatorId))
+                .thenReturn(new CommentDto(null, "comment1", "user1", LocalDateTime.of(2023, 6, 7, 0, 0)));
+
+        mvc.perform(post("/items/{itemId}/comment", itemId)
+                        .header("X-Sharer-User-Id", commentatorId)
+                        .content(mapper.writeValueAsString(commentDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.text").value("comment1"));
+    }
+
+    @Test
+    public void createComment_queueFull_tooManyRequests() throws Exception {
+        long itemId = 1L;
+        long commentatorId = 1L;
+
+        when(itemServiceMock.createComment(commentDto, itemId, commentatorId))
+                .thenThrow(new CommentQueueFullException("Too many comments, try again later.", itemId));
+
+        mvc.perform(post("/items/{itemId}/comment", itemId)
+                        .header("X-Sharer-User-Id", commentatorId)
+                        .content(mapper.writeValueAsString(commentDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.message").value("Too many comments, try again later."))
+                .andExpect(jsonPath("$.itemId").value(itemId));
+    }
+
+    @Test
+    public void findItemAvailability_valid_succeed() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        ItemAvailabilityDto.Interval busy = new ItemAvailabilityDto.Interval(from.plusHours(2), from.plusHours(4));
+        when(itemServiceMock.findItemAvailability(dto.getId(), from, to)).thenReturn(new ItemAvailabilityDto(dto.getId(), from, to,
+                List.of(new ItemAvailabilityDto.Interval(from, busy.getStart()), new ItemAvailabilityDto.Interval(busy.getEnd(), to)),
+                List.of(busy), List.of()));
+
+        mvc.perform(get("/items/{itemId}/availability", dto.getId())
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(dto.getId()))
+                .andExpect(jsonPath("$.free.length()").value(2))
+                .andExpect(jsonPath("$.busy[0].start").value("2030-01-01T02:00:00"))
+                .andExpect(jsonPath("$.busy[0].end").value("2030-01-01T04:00:00"))
+                .andExpect(jsonPath("$.pending").isEmpty());
+    }
+}